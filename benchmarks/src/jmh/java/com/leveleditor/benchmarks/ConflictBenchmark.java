@@ -0,0 +1,83 @@
+package com.leveleditor.benchmarks;
+
+import com.badlogic.gdx.utils.Array;
+import com.leveleditor.editor.ConflictDetector;
+import com.leveleditor.model.FormationData;
+import com.leveleditor.model.LevelData;
+import com.leveleditor.model.LevelEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conflict detection: a full check, as after loading a level, and the window check
+ * EditorController runs after each edit. The generated levels include FORMATION
+ * events, so their formation extents take part in the sweep.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConflictBenchmark {
+    private static final int EDITS = 1024;
+
+    @Param({"10000", "100000", "1000000"})
+    public int eventCount;
+
+    private LevelData level;
+    private FormationData formations;
+    private ConflictDetector detector;
+    private Array<LevelEvent> conflicts;
+    private float[] editTimes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        level = LevelGenerator.generate(eventCount, 42);
+        formations = LevelGenerator.generateFormations(LevelGenerator.FORMATION_IDS.length, 42);
+        detector = new ConflictDetector();
+        conflicts = new Array<>(false, 1024, LevelEvent.class);
+
+        Random random = new Random(7);
+        editTimes = new float[EDITS];
+        for (int i = 0; i < EDITS; i++) {
+            editTimes[i] = random.nextFloat() * level.levelLength;
+        }
+    }
+
+    /**
+     * Checks every event of the level.
+     */
+    @Benchmark
+    public int fullCheck() {
+        return detector.detect(level, formations, Float.NEGATIVE_INFINITY, Float.POSITIVE_INFINITY, conflicts);
+    }
+
+    /**
+     * Checks the events within reach of an edit at random times.
+     */
+    @Benchmark
+    @OperationsPerInvocation(EDITS)
+    public int editCheck() {
+        float reach = detector.getReach(formations);
+        int sum = 0;
+        for (float time : editTimes) {
+            sum += detector.detect(level, formations, time - reach, time + reach, conflicts);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,92 @@
+package com.leveleditor.benchmarks;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.leveleditor.editor.FormationSerializer;
+import com.leveleditor.model.FormationData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Formation file save/load and the formation lookups done for every rendered
+ * formation event.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FormationBenchmark {
+    private static final int LOOKUPS = 1024;
+
+    @Param({"3", "100", "1000"})
+    public int formationCount;
+
+    private FormationSerializer serializer;
+    private FormationData formations;
+    private String[] lookupIds;
+    private File directory;
+    private FileHandle formationFile;
+    private FileHandle saveFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        serializer = new FormationSerializer();
+        formations = LevelGenerator.generateFormations(formationCount, 42);
+
+        lookupIds = new String[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            // Every fourth lookup misses, like events referencing deleted formations
+            lookupIds[i] = i % 4 == 3 ? "missing" + i : formations.formations.get(i % formationCount).id;
+        }
+
+        directory = File.createTempFile("formation-bench", "");
+        directory.delete();
+        directory.mkdirs();
+        formationFile = new FileHandle(new File(directory, "formations.json"));
+        serializer.save(formations, formationFile);
+        saveFile = new FileHandle(new File(directory, "saved.json"));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        new FileHandle(directory).deleteDirectory();
+    }
+
+    @Benchmark
+    public FileHandle save() throws IOException {
+        serializer.save(formations, saveFile);
+        return saveFile;
+    }
+
+    @Benchmark
+    public FormationData load() {
+        return serializer.load(formationFile);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LOOKUPS)
+    public void getFormationById(Blackhole blackhole) {
+        for (String id : lookupIds) {
+            blackhole.consume(formations.getFormationById(id));
+        }
+    }
+
+}
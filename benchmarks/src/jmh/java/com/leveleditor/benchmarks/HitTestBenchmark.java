@@ -0,0 +1,82 @@
+package com.leveleditor.benchmarks;
+
+import com.leveleditor.editor.EventActor;
+import com.leveleditor.editor.EventPickGrid;
+import com.leveleditor.model.LevelData;
+import com.leveleditor.model.LevelEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Picking the event under the cursor, with actors laid out as the timeline does at
+ * the default zoom.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HitTestBenchmark {
+    private static final float VIEWPORT_WIDTH = 1280f;
+    private static final float PIXELS_PER_SECOND = 100f;
+    private static final int PICKS = 1024;
+
+    @Param({"100", "10000", "100000", "1000000"})
+    public int eventCount;
+
+    private EventPickGrid grid;
+    private float[] pickX;
+    private float[] pickY;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        LevelData level = LevelGenerator.generate(eventCount, 42);
+        float size = EventActor.getEventSize();
+        grid = new EventPickGrid(size);
+        for (LevelEvent event : level.events) {
+            EventActor actor = new EventActor(event);
+            actor.setPosition(event.x * VIEWPORT_WIDTH - size / 2, event.time * PIXELS_PER_SECOND - size / 2);
+            grid.add(actor);
+        }
+
+        // Half the picks land on an event, half on a random spot
+        Random random = new Random(7);
+        pickX = new float[PICKS];
+        pickY = new float[PICKS];
+        for (int i = 0; i < PICKS; i++) {
+            if (i % 2 == 0) {
+                LevelEvent event = level.events.get(random.nextInt(level.events.size));
+                pickX[i] = event.x * VIEWPORT_WIDTH + random.nextFloat() * 4f;
+                pickY[i] = event.time * PIXELS_PER_SECOND + random.nextFloat() * 4f;
+            } else {
+                pickX[i] = random.nextFloat() * VIEWPORT_WIDTH;
+                pickY[i] = random.nextFloat() * level.levelLength * PIXELS_PER_SECOND;
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(PICKS)
+    public void findNearest(Blackhole blackhole) {
+        float radius = EventActor.getEventSize();
+        for (int i = 0; i < PICKS; i++) {
+            blackhole.consume(grid.findNearest(pickX[i], pickY[i], radius));
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.leveleditor.benchmarks;
+
+import com.badlogic.gdx.utils.Array;
+import com.leveleditor.model.LevelData;
+import com.leveleditor.model.LevelEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Editing operations on the sorted event list.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LevelDataBenchmark {
+    private static final int NEW_EVENTS = 1024;
+
+    @Param({"100", "10000", "100000", "1000000"})
+    public int eventCount;
+
+    private LevelData level;
+    private LevelEvent[] newEvents;
+    private int nextEvent;
+    private Array<LevelEvent> shuffled;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        level = LevelGenerator.generate(eventCount, 42);
+
+        Random random = new Random(7);
+        newEvents = new LevelEvent[NEW_EVENTS];
+        for (int i = 0; i < NEW_EVENTS; i++) {
+            newEvents[i] = LevelGenerator.randomEvent(random, level.levelLength);
+        }
+
+        shuffled = new Array<>(level.events);
+        shuffled.shuffle();
+    }
+
+    /**
+     * Inserts an event at its sorted position and removes it again, so the level
+     * keeps its size across invocations.
+     */
+    @Benchmark
+    public LevelData addAndRemoveEvent() {
+        LevelEvent event = newEvents[nextEvent];
+        nextEvent = (nextEvent + 1) % NEW_EVENTS;
+        level.addEvent(event);
+        level.removeEvent(event);
+        return level;
+    }
+
+    /**
+     * Moves an event to a random time and back, as a timeline drag does.
+     */
+    @Benchmark
+    public LevelData moveEvent() {
+        LevelEvent target = newEvents[nextEvent];
+        nextEvent = (nextEvent + 1) % NEW_EVENTS;
+        LevelEvent event = level.events.get(level.events.size / 2);
+        float time = event.time;
+        float x = event.x;
+        level.moveEvent(event, target.time, target.x);
+        level.moveEvent(event, time, x);
+        return level;
+    }
+
+    /**
+     * Sorts events loaded in arbitrary order, as done after every load.
+     * Includes copying the shuffled events into the level, which is O(n).
+     */
+    @Benchmark
+    public LevelData sortEvents() {
+        level.events.clear();
+        level.events.addAll(shuffled);
+        level.sortEvents();
+        return level;
+    }
+}
@@ -0,0 +1,91 @@
+package com.leveleditor.benchmarks;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.leveleditor.editor.LevelSerializer;
+import com.leveleditor.model.LevelData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Level JSON save and load, both in memory (parser/writer cost only) and through
+ * files (including the atomic write and fsync done by every editor save).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LevelSerializerBenchmark {
+    @Param({"100", "10000", "100000", "1000000"})
+    public int eventCount;
+
+    private LevelSerializer serializer;
+    private LevelData level;
+    private String json;
+    private File directory;
+    private FileHandle levelFile;
+    private FileHandle saveFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        serializer = new LevelSerializer();
+        level = LevelGenerator.generate(eventCount, 42);
+
+        StringWriter writer = new StringWriter();
+        serializer.write(level, writer, false);
+        json = writer.toString();
+
+        directory = File.createTempFile("level-bench", "");
+        directory.delete();
+        directory.mkdirs();
+        levelFile = new FileHandle(new File(directory, "level.json"));
+        levelFile.writeString(json, false, "UTF-8");
+        saveFile = new FileHandle(new File(directory, "saved.json"));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        new FileHandle(directory).deleteDirectory();
+    }
+
+    @Benchmark
+    public String write() throws IOException {
+        StringWriter writer = new StringWriter(json.length());
+        serializer.write(level, writer, false);
+        return writer.toString();
+    }
+
+    @Benchmark
+    public LevelData read() throws IOException {
+        return serializer.read(new StringReader(json));
+    }
+
+    @Benchmark
+    public FileHandle save() throws IOException {
+        serializer.save(level, saveFile);
+        return saveFile;
+    }
+
+    @Benchmark
+    public LevelData load() {
+        return serializer.load(levelFile);
+    }
+}
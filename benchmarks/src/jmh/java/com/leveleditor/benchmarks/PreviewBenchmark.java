@@ -0,0 +1,132 @@
+package com.leveleditor.benchmarks;
+
+import com.badlogic.gdx.utils.IdentityMap;
+import com.leveleditor.editor.EventActor;
+import com.leveleditor.model.LevelData;
+import com.leveleditor.model.LevelEvent;
+import com.leveleditor.model.SpawnTable;
+import com.leveleditor.model.SpawnTableCompiler;
+import com.leveleditor.player.LevelPlayer;
+import com.leveleditor.player.SpawnRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Level playback with LevelPlayer. EditorController needs a GL context, so the preview
+ * case plays the level with the same listener as EditorController's preview, against an
+ * event-to-actor map like the one in TimelineView. The runtime case plays the compiled
+ * spawn table of the same level, as the game does.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PreviewBenchmark {
+    private static final float FRAME_TIME = 1f / 60f;
+    private static final int SEEKS = 1024;
+
+    @Param({"100", "10000", "100000", "1000000"})
+    public int eventCount;
+
+    private LevelData level;
+    private IdentityMap<LevelEvent, EventActor> actorsByEvent;
+    private LevelPlayer previewPlayer;
+    private LevelPlayer tablePlayer;
+    private SpawnTable table;
+    private float spawnedX;
+    private float[] seekTimes;
+    private int nextSeek;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        level = LevelGenerator.generate(eventCount, 42);
+        actorsByEvent = new IdentityMap<>(eventCount);
+        for (LevelEvent event : level.events) {
+            actorsByEvent.put(event, new EventActor(event));
+        }
+
+        previewPlayer = new LevelPlayer(new LevelPlayer.SpawnListener() {
+            @Override
+            public void spawn(SpawnRecord spawn) {
+                EventActor actor = actorsByEvent.get(level.events.get(spawn.sourceEvent));
+                if (actor != null) {
+                    actor.setTriggered(true);
+                }
+            }
+        });
+        previewPlayer.setLevel(level);
+
+        table = new SpawnTableCompiler().compile(level, LevelGenerator.generateFormations(LevelGenerator.FORMATION_IDS.length, 42));
+        tablePlayer = new LevelPlayer(new LevelPlayer.SpawnListener() {
+            @Override
+            public void spawn(SpawnRecord spawn) {
+                spawnedX += spawn.x;
+            }
+        });
+        tablePlayer.setSpawnTable(table);
+
+        Random random = new Random(7);
+        seekTimes = new float[SEEKS];
+        for (int i = 0; i < SEEKS; i++) {
+            seekTimes[i] = random.nextFloat() * level.levelLength;
+        }
+    }
+
+    /**
+     * Plays one second of preview at the maximum preview speed, frame by frame.
+     * The start time moves through the level so every part of it is covered.
+     */
+    @Benchmark
+    public int playOneSecond() {
+        return play(previewPlayer, 16f);
+    }
+
+    /**
+     * Plays one second of the compiled spawn table at the maximum preview speed.
+     */
+    @Benchmark
+    public int playTableOneSecond() {
+        return play(tablePlayer, 16f);
+    }
+
+    /**
+     * Seeks to random times, as when scrubbing the preview.
+     */
+    @Benchmark
+    @OperationsPerInvocation(SEEKS)
+    public int seek() {
+        int sum = 0;
+        for (float time : seekTimes) {
+            previewPlayer.seek(time);
+            sum += previewPlayer.getCursor();
+        }
+        return sum;
+    }
+
+    private int play(LevelPlayer player, float timeScale) {
+        player.seek(seekTimes[nextSeek]);
+        nextSeek = (nextSeek + 1) % SEEKS;
+        player.setTimeScale(timeScale);
+        int dispatched = 0;
+        for (int frame = 0; frame < 60; frame++) {
+            dispatched += player.update(FRAME_TIME);
+        }
+        return dispatched;
+    }
+}
@@ -0,0 +1,81 @@
+package com.leveleditor.benchmarks;
+
+import com.badlogic.gdx.utils.Array;
+import com.leveleditor.model.EventType;
+import com.leveleditor.model.Formation;
+import com.leveleditor.model.FormationData;
+import com.leveleditor.model.LevelData;
+import com.leveleditor.model.LevelEvent;
+
+import java.util.Random;
+
+/**
+ * Generates benchmark levels shaped like assets/levels/complex_generated.json:
+ * about 0.7 events per second, mostly basic/fast/tank enemies, a boss every ~70 events
+ * and, as in that level, roughly one in twelve events spawning a formation. Formation
+ * events use the ids of {@link #FORMATION_IDS}, so the formation paths are measured too.
+ */
+final class LevelGenerator {
+    static final float EVENTS_PER_SECOND = 0.71f;
+    static final String[] ENEMY_TYPES = {"basic", "fast", "tank"};
+    static final String[] FORMATION_IDS = {"V", "line", "circle"};
+
+    private LevelGenerator() {
+    }
+
+    /**
+     * Creates a time-sorted level with the given number of events.
+     */
+    static LevelData generate(int eventCount, long seed) {
+        Random random = new Random(seed);
+        float levelLength = Math.max(100f, eventCount / EVENTS_PER_SECOND);
+        LevelData level = new LevelData(levelLength);
+        Array<LevelEvent> events = new Array<>(eventCount);
+        for (int i = 0; i < eventCount; i++) {
+            events.add(randomEvent(random, levelLength));
+        }
+        level.addEvents(events);
+        return level;
+    }
+
+    /**
+     * Creates an event at a random time with the same type mix as the generated levels.
+     */
+    static LevelEvent randomEvent(Random random, float levelLength) {
+        // Times are rounded like hand-placed events, so equal times occur
+        float time = Math.round(random.nextFloat() * levelLength * 10f) / 10f;
+        float x = Math.round((0.1f + random.nextFloat() * 0.8f) * 100f) / 100f;
+        int roll = random.nextInt(70);
+        LevelEvent event;
+        if (roll == 0) {
+            event = new LevelEvent(time, EventType.BOSS, 0.5f);
+            event.enemyType = "boss1";
+        } else if (roll <= 6) {
+            event = new LevelEvent(time, EventType.FORMATION, x);
+            event.enemyType = ENEMY_TYPES[random.nextInt(ENEMY_TYPES.length)];
+            event.formationId = FORMATION_IDS[random.nextInt(FORMATION_IDS.length)];
+        } else {
+            event = new LevelEvent(time, EventType.ENEMY, x);
+            event.enemyType = ENEMY_TYPES[random.nextInt(ENEMY_TYPES.length)];
+        }
+        return event;
+    }
+
+    /**
+     * Creates formation data with the bundled formations plus generated ones.
+     */
+    static FormationData generateFormations(int formationCount, long seed) {
+        Random random = new Random(seed);
+        FormationData data = new FormationData();
+        for (int i = 0; i < formationCount; i++) {
+            String id = i < FORMATION_IDS.length ? FORMATION_IDS[i] : "formation" + i;
+            Formation formation = new Formation(id, 0.5f + random.nextFloat());
+            int positions = 3 + random.nextInt(8);
+            for (int j = 0; j < positions; j++) {
+                formation.addPosition(random.nextFloat() * 0.4f - 0.2f, random.nextFloat() * 0.4f - 0.2f);
+            }
+            data.addFormation(formation);
+        }
+        return data;
+    }
+}
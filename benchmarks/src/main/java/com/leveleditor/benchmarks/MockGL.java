@@ -0,0 +1,57 @@
+package com.leveleditor.benchmarks;
+
+import com.badlogic.gdx.graphics.GL20;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.IntBuffer;
+
+/**
+ * GL20 stand-in for running the editor's rendering code without a GPU.
+ * Every call is a no-op that reports success: object handles are non-zero, shaders
+ * compile and link, and queries return harmless values. Draw calls cost only the
+ * CPU work done before they reach GL, which is what the stress harness measures.
+ */
+final class MockGL {
+    private MockGL() {
+    }
+
+    static GL20 create() {
+        return (GL20) Proxy.newProxyInstance(GL20.class.getClassLoader(), new Class<?>[] {GL20.class},
+            new InvocationHandler() {
+                @Override
+                public Object invoke(Object proxy, Method method, Object[] args) {
+                    String name = method.getName();
+                    if (name.equals("glGetShaderiv") || name.equals("glGetProgramiv")) {
+                        // Compile and link succeed; no active uniforms or attributes to enumerate
+                        int pname = (Integer) args[1];
+                        boolean ok = pname == GL20.GL_COMPILE_STATUS || pname == GL20.GL_LINK_STATUS;
+                        ((IntBuffer) args[2]).put(0, ok ? 1 : 0);
+                        return null;
+                    }
+                    if (name.equals("glGetIntegerv")) {
+                        ((IntBuffer) args[1]).put(0, 4096);
+                        return null;
+                    }
+                    Class<?> type = method.getReturnType();
+                    if (type == int.class) {
+                        if (name.equals("glGetError")) {
+                            return GL20.GL_NO_ERROR;
+                        }
+                        if (name.equals("glCheckFramebufferStatus")) {
+                            return GL20.GL_FRAMEBUFFER_COMPLETE;
+                        }
+                        return 1;
+                    }
+                    if (type == boolean.class) {
+                        return false;
+                    }
+                    if (type == String.class) {
+                        return "";
+                    }
+                    return null;
+                }
+            });
+    }
+}
@@ -0,0 +1,107 @@
+package com.leveleditor.benchmarks;
+
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.InputProcessor;
+import com.badlogic.gdx.backends.headless.mock.input.MockInput;
+import com.badlogic.gdx.utils.IntSet;
+
+/**
+ * Input stand-in whose pointer, left mouse button and key presses are set by a script.
+ * As in a real backend, "just pressed" states last for one frame: until {@link #nextFrame()}.
+ * The input processor is kept, so scripts can also send events such as mouse wheel scrolls.
+ */
+final class ScriptedInput extends MockInput {
+    private final IntSet justPressedKeys = new IntSet();
+    private InputProcessor processor;
+    private int x;
+    private int y;
+    private boolean buttonPressed;
+    private boolean buttonJustPressed;
+
+    /**
+     * Ends the current frame, clearing the "just pressed" states.
+     */
+    void nextFrame() {
+        justPressedKeys.clear();
+        buttonJustPressed = false;
+    }
+
+    void moveTo(int x, int y) {
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * Presses the left mouse button at the current pointer position.
+     */
+    void press() {
+        buttonPressed = true;
+        buttonJustPressed = true;
+    }
+
+    void release() {
+        buttonPressed = false;
+    }
+
+    /**
+     * Presses a key for this frame.
+     */
+    void tapKey(int key) {
+        justPressedKeys.add(key);
+    }
+
+    @Override
+    public int getX() {
+        return x;
+    }
+
+    @Override
+    public int getX(int pointer) {
+        return pointer == 0 ? x : 0;
+    }
+
+    @Override
+    public int getY() {
+        return y;
+    }
+
+    @Override
+    public int getY(int pointer) {
+        return pointer == 0 ? y : 0;
+    }
+
+    @Override
+    public boolean isTouched() {
+        return buttonPressed;
+    }
+
+    @Override
+    public boolean justTouched() {
+        return buttonJustPressed;
+    }
+
+    @Override
+    public boolean isButtonPressed(int button) {
+        return button == Input.Buttons.LEFT && buttonPressed;
+    }
+
+    @Override
+    public boolean isButtonJustPressed(int button) {
+        return button == Input.Buttons.LEFT && buttonJustPressed;
+    }
+
+    @Override
+    public boolean isKeyJustPressed(int key) {
+        return justPressedKeys.contains(key);
+    }
+
+    @Override
+    public void setInputProcessor(InputProcessor processor) {
+        this.processor = processor;
+    }
+
+    @Override
+    public InputProcessor getInputProcessor() {
+        return processor;
+    }
+}
@@ -0,0 +1,549 @@
+package com.leveleditor.benchmarks;
+
+import com.badlogic.gdx.ApplicationAdapter;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Input;
+import com.badlogic.gdx.backends.headless.HeadlessApplication;
+import com.badlogic.gdx.backends.headless.HeadlessApplicationConfiguration;
+import com.badlogic.gdx.backends.headless.mock.graphics.MockGraphics;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.Array;
+import com.leveleditor.editor.BinaryLevelSerializer;
+import com.leveleditor.editor.ConflictDetector;
+import com.leveleditor.editor.DifficultyCurve;
+import com.leveleditor.editor.EditorController;
+import com.leveleditor.editor.EditorScreen;
+import com.leveleditor.editor.EventActor;
+import com.leveleditor.editor.FormationSerializer;
+import com.leveleditor.editor.TimelineView;
+import com.leveleditor.model.LevelData;
+import com.leveleditor.model.LevelEvent;
+import com.leveleditor.model.SpawnTableCompiler;
+import com.leveleditor.player.EnemySimulation;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Headless stress test for the editor's per-frame work on large levels.
+ * Runs the real EditorScreen, loads a generated level through the regular load path,
+ * then drives scripted scenarios (idle, panning, zooming in and out of the density view,
+ * preview playback with scrubbing and event drags) frame by frame and reports per-frame
+ * CPU time percentiles and allocation rates for each. Mouse and keyboard input comes from
+ * a script through {@link ScriptedInput} and rendering goes to a mock GL, so this runs on
+ * machines without a GPU or display. The scenarios check what the screen reports in its
+ * status label along the way.
+ *
+ * Allocations are also measured for the update part of each frame alone (scripted input
+ * and EditorScreen.update()), which should not allocate after the warmup.
+ * Rendering is left out there because the mock GL boxes its arguments. Any allocating
+ * steady frame fails the check. Scenarios are periodic, so collections reach their peak
+ * size during the warmup; the drag scenario drags the same few events back and forth for
+ * that reason.
+ *
+ * Usage: StressHarness [--events N] [--frames N] [--warmup N] [--max-p99-ms MS] [--check-allocations]
+ * With --max-p99-ms the exit code is 1 if any scenario's p99 CPU time exceeds the budget.
+ * With --check-allocations the exit code is 1 if steady frames of the drag or preview
+ * scenario allocate during their update part.
+ */
+public class StressHarness extends ApplicationAdapter {
+    private static final float FRAME_TIME = 1f / 60f;
+    private static final int WIDTH = 1280;
+    private static final int HEIGHT = 720;
+    private static final int DRAG_FRAMES = 30;
+    private static final int DRAG_TARGETS = 8;
+    private static final String LEVEL_NAME = "stress.lvlb";
+
+    /**
+     * A scripted sequence of frames.
+     */
+    private abstract class Scenario {
+        final String name;
+        final boolean allocationFree;
+
+        Scenario(String name, boolean allocationFree) {
+            this.name = name;
+            this.allocationFree = allocationFree;
+        }
+
+        void begin() {
+        }
+
+        abstract void step(int frame);
+
+        /**
+         * Whether a frame is part of the steady state, as opposed to e.g. the press or
+         * release of a drag, which may allocate.
+         */
+        boolean isSteady(int frame) {
+            return true;
+        }
+
+        /**
+         * Checks the screen's state after the update part of a frame.
+         * @return A description of what is wrong, or null
+         */
+        String check(int frame) {
+            return null;
+        }
+
+        void end() {
+        }
+    }
+
+    private final int eventCount;
+    private final int frames;
+    private final int warmupFrames;
+    private final float maxP99Millis;
+    private final boolean checkAllocations;
+    private final CountDownLatch finished = new CountDownLatch(1);
+    private final com.sun.management.ThreadMXBean threads =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final Random random = new Random(42);
+
+    private ScriptedInput input;
+    private EditorScreen screen;
+    private TimelineView timelineView;
+    private EditorController controller;
+    private Array<Scenario> scenarios;
+    private int scenarioIndex = -1;
+    private int frame;
+    private long loadStart;
+    private long[] cpuNanos;
+    private long[] wallNanos;
+    private long[] allocatedBytes;
+    private long maxSteadyUpdateBytes;
+    private int allocatingFrames;
+    private final StringBuilder report = new StringBuilder();
+    private boolean failed;
+    private boolean allocationCheckFailed;
+    private String checkFailure;
+
+    public StressHarness(int eventCount, int frames, int warmupFrames, float maxP99Millis, boolean checkAllocations) {
+        this.eventCount = eventCount;
+        this.frames = frames;
+        this.warmupFrames = warmupFrames;
+        this.maxP99Millis = maxP99Millis;
+        this.checkAllocations = checkAllocations;
+    }
+
+    @Override
+    public void create() {
+        // The headless backend reports a 0x0 screen; give coordinate conversion a real one
+        Gdx.graphics = new MockGraphics() {
+            @Override
+            public int getWidth() {
+                return WIDTH;
+            }
+
+            @Override
+            public int getHeight() {
+                return HEIGHT;
+            }
+
+            @Override
+            public int getBackBufferWidth() {
+                return WIDTH;
+            }
+
+            @Override
+            public int getBackBufferHeight() {
+                return HEIGHT;
+            }
+        };
+        Gdx.gl = Gdx.gl20 = MockGL.create();
+        // The mock GL reports no uniforms; don't fail when shaders set them
+        ShaderProgram.pedantic = false;
+        input = new ScriptedInput();
+        Gdx.input = input;
+
+        try {
+            // The controller loads formations.json from the working directory, so the
+            // generated level's formation events get previews
+            new FormationSerializer().save(LevelGenerator.generateFormations(LevelGenerator.FORMATION_IDS.length, 42),
+                Gdx.files.local("formations.json"));
+            // The drags of earlier runs are journaled; don't offer to recover them
+            Gdx.files.local("levels/.unsaved.journal").delete();
+            screen = new EditorScreen();
+            screen.resize(WIDTH, HEIGHT);
+            timelineView = screen.getTimelineView();
+            controller = screen.getController();
+            scenarios = createScenarios();
+
+            LevelData level = LevelGenerator.generate(eventCount, 42);
+            new BinaryLevelSerializer().save(level, Gdx.files.local("levels/" + LEVEL_NAME));
+        } catch (Throwable t) {
+            t.printStackTrace();
+            fail();
+            return;
+        }
+
+        loadStart = System.nanoTime();
+        controller.loadLevel(LEVEL_NAME, new EditorController.IoCallback() {
+            @Override
+            public void finished(String message) {
+                report.append(String.format(Locale.ROOT, "%s (%d events) in %.0f ms%n%n",
+                    message, controller.getLevelData().events.size, (System.nanoTime() - loadStart) / 1e6));
+                report.append(String.format(Locale.ROOT, "%-10s %7s %8s %8s %8s %8s %9s %12s %10s %12s%n",
+                    "scenario", "frames", "cpu p50", "cpu p90", "cpu p99", "cpu max", "wall p99", "alloc/frame", "alloc MB/s",
+                    "update alloc"));
+                nextScenario();
+            }
+        });
+    }
+
+    private Array<Scenario> createScenarios() {
+        Array<Scenario> list = new Array<>();
+        list.add(new Scenario("idle", false) {
+            @Override
+            void step(int frame) {
+            }
+        });
+        list.add(new Scenario("pan", false) {
+            @Override
+            void step(int frame) {
+                // Sweep back and forth over the whole level
+                float phase = (frame % 600) / 600f;
+                float sweep = phase < 0.5f ? phase * 2f : 2f - phase * 2f;
+                timelineView.scrollToTime(sweep * controller.getLevelData().levelLength);
+            }
+        });
+        list.add(new Scenario("zoom", false) {
+            @Override
+            void begin() {
+                timelineView.scrollToTime(controller.getLevelData().levelLength / 2f);
+            }
+
+            @Override
+            void step(int frame) {
+                // Zoom out past the density threshold and back in, one wheel notch per frame
+                input.getInputProcessor().scrolled(0f, (frame / 60) % 2 == 0 ? 1f : -1f);
+            }
+
+            @Override
+            void end() {
+                timelineView.addScroll(-1000f);
+                timelineView.handleInput();
+            }
+        });
+        list.add(new Scenario("preview", true) {
+            private int maxLiveEntities;
+
+            @Override
+            void begin() {
+                controller.startPreview(controller.getLevelData().levelLength / 4f);
+                controller.setPreviewSpeed(EditorController.MAX_PREVIEW_SPEED);
+                timelineView.setPreviewMode(true);
+                maxLiveEntities = 0;
+            }
+
+            @Override
+            void step(int frame) {
+                // Scrub with the arrow keys: a second back and forth, crossing triggered events both ways
+                if (frame % 60 == 20) {
+                    input.tapKey(Input.Keys.LEFT);
+                } else if (frame % 60 == 40) {
+                    input.tapKey(Input.Keys.RIGHT);
+                }
+                maxLiveEntities = Math.max(maxLiveEntities, controller.getSimulation().getCount());
+            }
+
+            @Override
+            String check(int frame) {
+                if (frame % 60 != 20 && frame % 60 != 40) {
+                    return null;
+                }
+                // The status shows the time seeked to, to one decimal place
+                String status = screen.getStatusText().toString();
+                String prefix = "Preview at ";
+                if (!status.startsWith(prefix) || !status.endsWith("s")
+                    || Math.abs(Float.parseFloat(status.substring(prefix.length(), status.length() - 1))
+                        - controller.getPreviewTime()) > 0.051f) {
+                    return "seeking to " + controller.getPreviewTime() + "s showed \"" + status + "\"";
+                }
+                return null;
+            }
+
+            @Override
+            void end() {
+                // The simulation must not depend on frame times: rebuilding the state at the
+                // same time from scratch has to give the same entities
+                EnemySimulation replay = new EnemySimulation();
+                replay.setSpawnTable(new SpawnTableCompiler().compile(controller.getLevelData(), controller.getFormationData()));
+                replay.seek(controller.getPreviewTime());
+                boolean deterministic = replay.getChecksum() == controller.getSimulation().getChecksum();
+                report.append(String.format(Locale.ROOT, "  preview: up to %d live entities, simulation %s%n",
+                    maxLiveEntities, deterministic ? "deterministic" : "NOT deterministic"));
+                if (!deterministic) {
+                    failed = true;
+                }
+                controller.stopPreview();
+                timelineView.setPreviewMode(false);
+            }
+        });
+        list.add(new Scenario("drag", true) {
+            // Presses on an event, drags it and releases it with the scripted mouse
+            private final Vector3 screenPos = new Vector3();
+            private final Array<EventActor> targets = new Array<>(false, DRAG_TARGETS, EventActor.class);
+            private int pressX;
+            private int pressY;
+            private float direction;
+
+            @Override
+            void begin() {
+                // A fixed set of events dragged there and back again, so the measured drags
+                // repeat paths the warmup took and the indexes have grown to fit them
+                Array<EventActor> actors = timelineView.getEventActors();
+                targets.clear();
+                for (int i = 0; i < DRAG_TARGETS && actors.size > 0; i++) {
+                    targets.add(actors.get(random.nextInt(actors.size)));
+                }
+            }
+
+            @Override
+            void step(int frame) {
+                if (targets.size == 0) {
+                    return;
+                }
+                int dragFrame = frame % DRAG_FRAMES;
+                if (dragFrame == 0) {
+                    // Press on the center of the next target, dragging it back on every other pass
+                    int drag = frame / DRAG_FRAMES;
+                    EventActor target = targets.get(drag % targets.size);
+                    direction = (drag / targets.size) % 2 == 0 ? 1f : -1f;
+                    timelineView.scrollToTime(target.getEvent().time);
+                    float half = EventActor.getEventSize() / 2f;
+                    // Zoomed in by the zoom scenario, the view may not reach the target's x; pan to it
+                    OrthographicCamera camera = timelineView.getCamera();
+                    camera.position.x = target.getX() + half;
+                    camera.update();
+                    camera.project(screenPos.set(target.getX() + half, target.getY() + half, 0),
+                        0, 0, timelineView.getViewportWidth(), timelineView.getViewportHeight());
+                    pressX = Math.round(screenPos.x);
+                    pressY = HEIGHT - Math.round(screenPos.y);
+                    input.moveTo(pressX, pressY);
+                    input.press();
+                } else {
+                    float t = dragFrame / (float) (DRAG_FRAMES - 1);
+                    input.moveTo(Math.round(pressX + t * 40f * direction), Math.round(pressY - t * 120f * direction));
+                    if (dragFrame == DRAG_FRAMES - 1) {
+                        input.release();
+                    }
+                }
+            }
+
+            @Override
+            String check(int frame) {
+                if (targets.size == 0 || frame % DRAG_FRAMES != 0) {
+                    return null;
+                }
+                EventActor selected = controller.getSelectedActor();
+                if (selected == null) {
+                    return "pressing on an event did not select it";
+                }
+                String expected = "Selected " + selected.getEvent().type.name() + " event";
+                String status = screen.getStatusText().toString();
+                return status.equals(expected) ? null : "selecting showed \"" + status + "\", not \"" + expected + "\"";
+            }
+
+            @Override
+            boolean isSteady(int frame) {
+                int dragFrame = frame % DRAG_FRAMES;
+                return dragFrame != 0 && dragFrame != DRAG_FRAMES - 1;
+            }
+
+            @Override
+            void end() {
+                // The difficulty curve was updated on every drop; it must match a recount
+                DifficultyCurve curve = controller.getDifficultyCurve();
+                DifficultyCurve recount = new DifficultyCurve();
+                recount.rebuild(controller.getLevelData().events, controller.getFormationData());
+                boolean matches = curve.getEndTime() >= recount.getEndTime();
+                for (float t = 0f; matches && t < curve.getEndTime(); t += DifficultyCurve.BIN_SECONDS) {
+                    float next = t + DifficultyCurve.BIN_SECONDS;
+                    matches = curve.getEnemies(t, next) == recount.getEnemies(t, next)
+                        && curve.getBosses(t, next) == recount.getBosses(t, next)
+                        && curve.getPowerUps(t, next) == recount.getPowerUps(t, next);
+                }
+                report.append(String.format(Locale.ROOT, "  drag: difficulty curve %s%n",
+                    matches ? "matches a recount" : "DOES NOT match a recount"));
+
+                // Same for the conflicts, which every drop re-checked around the moved event
+                long start = System.nanoTime();
+                int conflicts = new ConflictDetector().detect(controller.getLevelData(), controller.getFormationData(),
+                    Float.NEGATIVE_INFINITY, Float.POSITIVE_INFINITY, new Array<LevelEvent>());
+                double checkMillis = (System.nanoTime() - start) / 1e6;
+                boolean conflictsMatch = conflicts == controller.getConflictCount();
+                report.append(String.format(Locale.ROOT, "  drag: %d conflicting events %s, full check in %.1f ms%n",
+                    controller.getConflictCount(), conflictsMatch ? "match a full check" : "DO NOT match a full check",
+                    checkMillis));
+                if (!matches || !conflictsMatch) {
+                    failed = true;
+                }
+            }
+        });
+        return list;
+    }
+
+    @Override
+    public void render() {
+        try {
+            if (scenarioIndex < 0 || scenarioIndex >= scenarios.size) {
+                return; // Still loading
+            }
+            Scenario scenario = scenarios.get(scenarioIndex);
+            long threadId = Thread.currentThread().getId();
+            long cpu = threads.getCurrentThreadCpuTime();
+            long wall = System.nanoTime();
+            long allocated = threads.getThreadAllocatedBytes(threadId);
+
+            input.nextFrame();
+            scenario.step(frame);
+            screen.update(FRAME_TIME);
+            long updateBytes = threads.getThreadAllocatedBytes(threadId) - allocated;
+            screen.draw(FRAME_TIME);
+
+            int sample = frame - warmupFrames;
+            if (sample >= 0) {
+                if (scenario.isSteady(frame) && updateBytes > 0) {
+                    maxSteadyUpdateBytes = Math.max(maxSteadyUpdateBytes, updateBytes);
+                    allocatingFrames++;
+                }
+                cpuNanos[sample] = threads.getCurrentThreadCpuTime() - cpu;
+                wallNanos[sample] = System.nanoTime() - wall;
+                allocatedBytes[sample] = threads.getThreadAllocatedBytes(threadId) - allocated;
+            }
+            String problem = scenario.check(frame);
+            if (problem != null) {
+                checkFailure = scenario.name + ": " + problem;
+                fail();
+                return;
+            }
+            frame++;
+            if (frame == warmupFrames + frames) {
+                scenario.end();
+                reportScenario(scenario);
+                nextScenario();
+            }
+        } catch (Throwable t) {
+            t.printStackTrace();
+            fail();
+        }
+    }
+
+    private void nextScenario() {
+        scenarioIndex++;
+        if (scenarioIndex >= scenarios.size) {
+            Gdx.app.exit();
+            return;
+        }
+        frame = 0;
+        cpuNanos = new long[frames];
+        wallNanos = new long[frames];
+        allocatedBytes = new long[frames];
+        maxSteadyUpdateBytes = 0;
+        allocatingFrames = 0;
+        scenarios.get(scenarioIndex).begin();
+    }
+
+    private void reportScenario(Scenario scenario) {
+        long totalWall = 0;
+        long totalAllocated = 0;
+        for (int i = 0; i < frames; i++) {
+            totalWall += wallNanos[i];
+            totalAllocated += allocatedBytes[i];
+        }
+        Arrays.sort(cpuNanos);
+        Arrays.sort(wallNanos);
+        float p99 = percentile(cpuNanos, 0.99f);
+        report.append(String.format(Locale.ROOT, "%-10s %7d %8.3f %8.3f %8.3f %8.3f %9.3f %12d %10.1f %12s%n",
+            scenario.name, frames,
+            percentile(cpuNanos, 0.5f), percentile(cpuNanos, 0.9f), p99, cpuNanos[frames - 1] / 1e6f,
+            percentile(wallNanos, 0.99f),
+            totalAllocated / frames,
+            totalWall > 0 ? totalAllocated / (1024.0 * 1024.0) / (totalWall / 1e9) : 0,
+            allocatingFrames == 0 ? "none" : allocatingFrames + " frames"));
+        if (maxP99Millis > 0 && p99 > maxP99Millis) {
+            failed = true;
+        }
+        if (checkAllocations && scenario.allocationFree && allocatingFrames > 0) {
+            report.append(String.format(Locale.ROOT, "  %s: %d steady frames allocated in their update, up to %d bytes%n",
+                scenario.name, allocatingFrames, maxSteadyUpdateBytes));
+            failed = true;
+            allocationCheckFailed = true;
+        }
+    }
+
+    /**
+     * Gets a percentile of sorted nanosecond samples, in milliseconds.
+     */
+    private static float percentile(long[] sorted, float p) {
+        return sorted[Math.round((sorted.length - 1) * p)] / 1e6f;
+    }
+
+    private void fail() {
+        failed = true;
+        Gdx.app.exit();
+    }
+
+    @Override
+    public void dispose() {
+        if (screen != null) {
+            screen.dispose();
+        }
+        System.out.print(report);
+        if (failed) {
+            System.out.println();
+            if (checkFailure != null) {
+                System.out.println("FAILED: " + checkFailure);
+            } else if (allocationCheckFailed) {
+                System.out.println("FAILED: steady drag or preview frames allocated");
+            } else {
+                System.out.println(maxP99Millis > 0
+                    ? String.format(Locale.ROOT, "FAILED: p99 frame CPU time above %.2f ms, or the run did not finish", maxP99Millis)
+                    : "FAILED: the run did not finish");
+            }
+        }
+        finished.countDown();
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int eventCount = 100000;
+        int frames = 600;
+        int warmupFrames = 120;
+        float maxP99Millis = 0;
+        boolean checkAllocations = false;
+        for (int i = 0; i < args.length; i += 2) {
+            if (args[i].equals("--check-allocations")) {
+                checkAllocations = true;
+                i--; // Takes no value
+            } else if (i == args.length - 1) {
+                throw new IllegalArgumentException("Missing value for option: " + args[i]);
+            } else if (args[i].equals("--events")) {
+                eventCount = Integer.parseInt(args[i + 1]);
+            } else if (args[i].equals("--frames")) {
+                frames = Integer.parseInt(args[i + 1]);
+            } else if (args[i].equals("--warmup")) {
+                warmupFrames = Integer.parseInt(args[i + 1]);
+            } else if (args[i].equals("--max-p99-ms")) {
+                maxP99Millis = Float.parseFloat(args[i + 1]);
+            } else {
+                throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+
+        StressHarness harness = new StressHarness(eventCount, Math.max(1, frames), Math.max(0, warmupFrames), maxP99Millis,
+            checkAllocations);
+        HeadlessApplicationConfiguration config = new HeadlessApplicationConfiguration();
+        // Render frames back to back; frame cost is measured, not paced
+        config.updatesPerSecond = 100000;
+        new HeadlessApplication(harness, config);
+        harness.finished.await();
+        System.exit(harness.failed ? 1 : 0);
+    }
+}
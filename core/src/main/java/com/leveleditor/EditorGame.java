@@ -2,16 +2,29 @@ package com.leveleditor;
 
 import com.badlogic.gdx.Game;
 import com.leveleditor.editor.EditorScreen;
+import com.leveleditor.editor.UndoHistory;
 
 /**
  * Main game class that initializes the level editor.
  */
 public class EditorGame extends Game {
-    
+    private final long undoMemoryBudget;
+
+    public EditorGame() {
+        this(UndoHistory.DEFAULT_MEMORY_BUDGET);
+    }
+
+    /**
+     * @param undoMemoryBudget Estimated number of bytes the undo history may use
+     */
+    public EditorGame(long undoMemoryBudget) {
+        this.undoMemoryBudget = undoMemoryBudget;
+    }
+
     @Override
     public void create() {
         // Set the editor screen as the main screen
-        setScreen(new EditorScreen());
+        setScreen(new EditorScreen(undoMemoryBudget));
     }
 
     @Override
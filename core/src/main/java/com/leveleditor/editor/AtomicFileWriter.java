@@ -0,0 +1,85 @@
+package com.leveleditor.editor;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Replaces files without ever leaving a partially written version behind.
+ * Content goes to a temporary file in the same directory, is forced to disk and then
+ * renamed over the target, so a crash leaves either the old or the new file intact.
+ */
+public final class AtomicFileWriter {
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    /**
+     * Writes the content of a file.
+     */
+    public interface Content {
+        void write(FileChannel channel) throws IOException;
+    }
+
+    private AtomicFileWriter() {
+    }
+
+    /**
+     * Atomically replaces a file with new content.
+     * @param target File to create or replace, along with missing parent directories
+     * @param content Writes the new content
+     * @throws IOException if writing fails; the target is left untouched
+     */
+    public static void write(File target, Content content) throws IOException {
+        Path targetPath = target.getAbsoluteFile().toPath();
+        Path tempPath = targetPath.resolveSibling(targetPath.getFileName() + TEMP_SUFFIX);
+        // Like FileHandle.write(), create missing parent directories
+        Files.createDirectories(targetPath.getParent());
+        try {
+            FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            try {
+                content.write(channel);
+                channel.force(true);
+            } finally {
+                channel.close();
+            }
+            move(tempPath, targetPath);
+        } catch (IOException e) {
+            Files.deleteIfExists(tempPath);
+            throw e;
+        }
+    }
+
+    private static void move(Path from, Path to) throws IOException {
+        try {
+            Files.move(from, to, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            // Some file systems cannot rename atomically; a plain replace is the best we can do
+            Files.move(from, to, StandardCopyOption.REPLACE_EXISTING);
+        }
+        syncDirectory(to.getParent());
+    }
+
+    /**
+     * Forces the directory entry of a rename to disk where the platform allows it.
+     */
+    private static void syncDirectory(Path directory) {
+        if (directory == null) {
+            return;
+        }
+        try {
+            FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ);
+            try {
+                channel.force(true);
+            } finally {
+                channel.close();
+            }
+        } catch (IOException e) {
+            // Not supported on every platform (e.g. Windows); the rename itself already happened
+        }
+    }
+}
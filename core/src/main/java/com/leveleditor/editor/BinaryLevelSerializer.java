@@ -0,0 +1,217 @@
+package com.leveleditor.editor;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.ObjectIntMap;
+import com.badlogic.gdx.utils.StreamUtils;
+import com.leveleditor.model.ColumnIO;
+import com.leveleditor.model.EventType;
+import com.leveleditor.model.LevelData;
+import com.leveleditor.model.LevelEvent;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads and writes levels in a compact, versioned binary format.
+ * Layout (little-endian):
+ * <pre>
+ * int    magic ("LVLB")
+ * int    version
+ * float  levelLength
+ * int    eventCount
+ * int    stringCount, then per string: int byteLength + UTF-8 bytes
+ *        padding to a multiple of 4 bytes
+ * float  time[eventCount]        (sorted ascending)
+ * float  x[eventCount]
+ * int    enemyTypeId[eventCount] (index into the strings, -1 for null)
+ * int    formationId[eventCount] (index into the strings, -1 for null)
+ * byte   type[eventCount]        (EventType ordinal)
+ * </pre>
+ * Files are read into one heap buffer and decoded column by column, with no reflection.
+ */
+public class BinaryLevelSerializer {
+    public static final String EXTENSION = "lvlb";
+    public static final int MAGIC = 0x424C564C; // "LVLB" read as little-endian
+    public static final int VERSION = 1;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final EventType[] TYPES = EventType.values();
+
+    /**
+     * Checks whether a file name uses the binary level extension.
+     */
+    public static boolean isBinaryLevel(String filename) {
+        return filename.toLowerCase().endsWith("." + EXTENSION);
+    }
+
+    /**
+     * Saves level data to a binary file. The file is replaced atomically.
+     * @param levelData The level data to save
+     * @param file The file to save to
+     * @throws IOException if the file could not be written; the previous file is kept
+     */
+    public void save(final LevelData levelData, FileHandle file) throws IOException {
+        EditorEvents.LevelSave event = new EditorEvents.LevelSave();
+        event.begin();
+        boolean success = false;
+        try {
+            AtomicFileWriter.write(file.file(), new AtomicFileWriter.Content() {
+                @Override
+                public void write(FileChannel channel) throws IOException {
+                    BinaryLevelSerializer.this.write(levelData, channel);
+                }
+            });
+            success = true;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.path = file.path();
+                event.format = EXTENSION;
+                event.bytes = success ? file.length() : 0;
+                event.eventCount = levelData.events.size;
+                event.success = success;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Writes level data to a channel.
+     * @param levelData The level data to write
+     * @param channel Destination; not closed
+     */
+    public void write(LevelData levelData, FileChannel channel) throws IOException {
+        Array<LevelEvent> events = levelData.events;
+        int count = events.size;
+
+        // Dictionary of the strings actually used, in first-use order
+        Array<String> strings = new Array<>();
+        ObjectIntMap<String> stringIds = new ObjectIntMap<>();
+        int[] enemyTypeIds = new int[count];
+        int[] formationIds = new int[count];
+        for (int i = 0; i < count; i++) {
+            LevelEvent event = events.get(i);
+            enemyTypeIds[i] = ColumnIO.intern(event.enemyType, strings, stringIds);
+            formationIds[i] = ColumnIO.intern(event.formationId, strings, stringIds);
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putFloat(levelData.levelLength);
+        buffer.putInt(count);
+        ColumnIO.writeStrings(strings, 16, buffer, channel);
+        for (int i = 0; i < count; i++) {
+            ColumnIO.writeFloat(events.get(i).time, buffer, channel);
+        }
+        for (int i = 0; i < count; i++) {
+            ColumnIO.writeFloat(events.get(i).x, buffer, channel);
+        }
+        ColumnIO.writeInts(enemyTypeIds, count, buffer, channel);
+        ColumnIO.writeInts(formationIds, count, buffer, channel);
+        for (int i = 0; i < count; i++) {
+            EventType type = events.get(i).type;
+            ColumnIO.writeByte((byte) (type != null ? type : EventType.ENEMY).ordinal(), buffer, channel);
+        }
+        ColumnIO.flush(buffer, channel);
+    }
+
+    /**
+     * Loads level data from a binary file.
+     * @param file The file to load from
+     * @return The loaded level data, or a new empty level if loading fails
+     */
+    public LevelData load(FileHandle file) {
+        EditorEvents.LevelLoad event = new EditorEvents.LevelLoad();
+        event.begin();
+        LevelData levelData = null;
+        FileChannel channel = null;
+        try {
+            if (file.exists()) {
+                ByteBuffer buffer;
+                if (file.file().exists()) {
+                    // Read rather than mapped: a mapping stays open until it is garbage
+                    // collected, and on Windows that blocks saving over the file
+                    channel = FileChannel.open(file.file().toPath(), StandardOpenOption.READ);
+                    buffer = readFully(channel);
+                } else {
+                    // Classpath and packaged internal files have no channel
+                    buffer = ByteBuffer.wrap(file.readBytes());
+                }
+                levelData = read(buffer);
+            }
+        } catch (Exception e) {
+            e.printStackTrace();
+        } finally {
+            StreamUtils.closeQuietly(channel);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.path = file.path();
+            event.format = EXTENSION;
+            event.bytes = file.exists() ? file.length() : 0;
+            event.eventCount = levelData != null ? levelData.events.size : 0;
+            event.success = levelData != null;
+            event.commit();
+        }
+        return levelData != null ? levelData : new LevelData();
+    }
+
+    /**
+     * Decodes level data from a buffer positioned at the start of a binary level.
+     */
+    public LevelData read(ByteBuffer buffer) {
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        int start = buffer.position();
+        if (buffer.getInt() != MAGIC) {
+            throw new GdxRuntimeException("Not a binary level file");
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new GdxRuntimeException("Unsupported binary level version: " + version);
+        }
+        LevelData levelData = new LevelData(buffer.getFloat());
+        int count = buffer.getInt();
+
+        String[] strings = ColumnIO.readStrings(buffer, start);
+        float[] times = ColumnIO.readFloats(buffer, count);
+        float[] xs = ColumnIO.readFloats(buffer, count);
+        int[] enemyTypeIds = ColumnIO.readInts(buffer, count);
+        int[] formationIds = ColumnIO.readInts(buffer, count);
+        byte[] types = ColumnIO.readBytes(buffer, count);
+
+        Array<LevelEvent> events = new Array<>(true, Math.max(1, count), LevelEvent.class);
+        for (int i = 0; i < count; i++) {
+            LevelEvent event = new LevelEvent();
+            event.time = times[i];
+            event.x = xs[i];
+            event.type = TYPES[types[i]];
+            event.enemyType = enemyTypeIds[i] == ColumnIO.NO_STRING ? null : strings[enemyTypeIds[i]];
+            event.formationId = formationIds[i] == ColumnIO.NO_STRING ? null : strings[formationIds[i]];
+            events.add(event);
+        }
+        // Already sorted when written; the sort is a linear pass over sorted input
+        levelData.addEvents(events);
+        return levelData;
+    }
+
+    private static ByteBuffer readFully(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Binary level too large: " + size + " bytes");
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) size);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("Unexpected end of file after " + buffer.position() + " bytes");
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+}
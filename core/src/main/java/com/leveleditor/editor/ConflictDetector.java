@@ -0,0 +1,167 @@
+package com.leveleditor.editor;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+import com.leveleditor.model.EventType;
+import com.leveleditor.model.Formation;
+import com.leveleditor.model.FormationData;
+import com.leveleditor.model.LevelData;
+import com.leveleditor.model.LevelEvent;
+import com.leveleditor.player.EnemySimulation;
+
+/**
+ * Finds events that spawn on top of each other. Every event covers a box of time and x:
+ * a point for single spawns, and for FORMATION events the extent of the formation's
+ * relativePositions, with y offsets turned into the time the members cross the spawn
+ * line at the formation's speed. Two events conflict when their boxes overlap or come
+ * closer than {@link #TIME_TOLERANCE} and {@link #X_TOLERANCE}.
+ *
+ * The check is a sweep line over the time-sorted events: no box reaches further from
+ * its event time than the largest formation does, so each event is only compared with
+ * the events that follow it within {@link #getReach}. A check can be limited to a time
+ * window, which is what an edit needs: only events within the reach of an edited event
+ * can change whether they conflict.
+ */
+public class ConflictDetector {
+    public static final float TIME_TOLERANCE = 0.1f; // Seconds
+    public static final float X_TOLERANCE = 0.02f;   // Normalized screen width
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    // Boxes of the events being swept, indexed from the first of them
+    private float[] times;
+    private float[] starts;
+    private float[] ends;
+    private float[] lefts;
+    private float[] rights;
+    private boolean[] conflicting;
+
+    // Reach of the formations it was computed for
+    private FormationData reachFormations;
+    private int reachVersion;
+    private float reach;
+
+    public ConflictDetector() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Gets how far apart in time two events can be and still conflict.
+     */
+    public float getReach(FormationData formationData) {
+        if (formationData != reachFormations
+                || (formationData != null && formationData.getVersion() != reachVersion)) {
+            float before = 0f;
+            float after = 0f;
+            if (formationData != null) {
+                for (Formation formation : formationData.formations) {
+                    float velocity = getVelocity(formation);
+                    for (Vector2 position : formation.relativePositions) {
+                        before = Math.max(before, -position.y / velocity);
+                        after = Math.max(after, position.y / velocity);
+                    }
+                }
+            }
+            reach = before + after + TIME_TOLERANCE;
+            reachFormations = formationData;
+            reachVersion = formationData != null ? formationData.getVersion() : 0;
+        }
+        return reach;
+    }
+
+    /**
+     * Checks whether the formations changed since the last check.
+     */
+    public boolean isStale(FormationData formationData) {
+        return formationData != reachFormations
+            || (formationData != null && formationData.getVersion() != reachVersion);
+    }
+
+    /**
+     * Finds the events in a time window that conflict with any other event, including
+     * events outside the window.
+     * @param level Level to check
+     * @param formationData Formations of the FORMATION events
+     * @param from Start of the window in seconds
+     * @param to End of the window in seconds
+     * @param out Cleared, then receives the conflicting events in the window in time order
+     * @return The number of conflicting events found
+     */
+    public int detect(LevelData level, FormationData formationData, float from, float to, Array<LevelEvent> out) {
+        out.clear();
+        float maxDistance = getReach(formationData);
+        int first = level.indexOfTime(from - maxDistance);
+        int last = level.indexAfterTime(to + maxDistance);
+        int count = last - first;
+        if (count > times.length) {
+            allocate(Math.max(count, times.length * 2));
+        }
+
+        for (int i = 0; i < count; i++) {
+            LevelEvent event = level.events.get(first + i);
+            times[i] = event.time;
+            starts[i] = event.time;
+            ends[i] = event.time;
+            lefts[i] = event.x;
+            rights[i] = event.x;
+            conflicting[i] = false;
+            if (event.type == EventType.FORMATION && formationData != null) {
+                Formation formation = formationData.getFormationById(event.formationId);
+                if (formation != null && formation.relativePositions.size > 0) {
+                    setFormationBox(i, formation);
+                }
+            }
+        }
+
+        for (int i = 0; i < count; i++) {
+            for (int j = i + 1; j < count && times[j] - times[i] <= maxDistance; j++) {
+                if (starts[j] <= ends[i] + TIME_TOLERANCE && starts[i] <= ends[j] + TIME_TOLERANCE
+                        && lefts[j] <= rights[i] + X_TOLERANCE && lefts[i] <= rights[j] + X_TOLERANCE) {
+                    conflicting[i] = true;
+                    conflicting[j] = true;
+                }
+            }
+        }
+
+        for (int i = 0; i < count; i++) {
+            if (conflicting[i] && times[i] >= from && times[i] <= to) {
+                out.add(level.events.get(first + i));
+            }
+        }
+        return out.size;
+    }
+
+    private void setFormationBox(int i, Formation formation) {
+        float velocity = getVelocity(formation);
+        float minX = Float.MAX_VALUE;
+        float maxX = -Float.MAX_VALUE;
+        float minY = Float.MAX_VALUE;
+        float maxY = -Float.MAX_VALUE;
+        for (Vector2 position : formation.relativePositions) {
+            minX = Math.min(minX, position.x);
+            maxX = Math.max(maxX, position.x);
+            minY = Math.min(minY, position.y);
+            maxY = Math.max(maxY, position.y);
+        }
+        starts[i] += minY / velocity;
+        ends[i] += maxY / velocity;
+        lefts[i] += minX;
+        rights[i] += maxX;
+    }
+
+    /**
+     * Gets how fast a formation's members move down the screen, as in the preview simulation.
+     */
+    private static float getVelocity(Formation formation) {
+        return Math.max(EnemySimulation.MIN_SPEED, formation.speed) * EnemySimulation.SCREENS_PER_SECOND;
+    }
+
+    private void allocate(int capacity) {
+        times = new float[capacity];
+        starts = new float[capacity];
+        ends = new float[capacity];
+        lefts = new float[capacity];
+        rights = new float[capacity];
+        conflicting = new boolean[capacity];
+    }
+}
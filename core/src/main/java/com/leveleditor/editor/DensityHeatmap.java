@@ -0,0 +1,129 @@
+package com.leveleditor.editor;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.utils.Disposable;
+import com.leveleditor.model.EventType;
+
+/**
+ * Renders a {@link DensityPyramid} as a heatmap texture for zoomed-out views.
+ * Picks the finest pyramid level whose bins are still a few pixels tall, so the
+ * number of cells drawn depends on the viewport size and never on the level length.
+ * Cell color blends the event type colors by count; opacity grows with density.
+ */
+public class DensityHeatmap implements Disposable {
+    private static final int MAX_ROWS = 2048;
+    private static final float MIN_BIN_PIXELS = 2f;
+    // Events per second in one x bin at which a cell becomes fully opaque
+    private static final float SATURATION_PER_SECOND = 4f;
+    private static final float MIN_ALPHA = 0.25f;
+
+    private static final EventType[] TYPES = EventType.values();
+
+    private final float pixelsPerSecond;
+    private final SpriteBatch batch;
+    private final Pixmap pixmap;
+    private final Texture texture;
+    private final TextureRegion region;
+
+    // What the texture currently shows, to skip refilling unchanged frames
+    private int cachedLevel = -1;
+    private int cachedFirstBin;
+    private int cachedRows;
+    private int cachedModCount;
+
+    /**
+     * @param pixelsPerSecond World units per second of timeline
+     */
+    public DensityHeatmap(float pixelsPerSecond) {
+        this.pixelsPerSecond = pixelsPerSecond;
+        batch = new SpriteBatch(1);
+        pixmap = new Pixmap(DensityPyramid.X_BINS, MAX_ROWS, Pixmap.Format.RGBA8888);
+        pixmap.setBlending(Pixmap.Blending.None);
+        texture = new Texture(DensityPyramid.X_BINS, MAX_ROWS, Pixmap.Format.RGBA8888);
+        texture.setFilter(Texture.TextureFilter.Nearest, Texture.TextureFilter.Nearest);
+        region = new TextureRegion(texture);
+    }
+
+    /**
+     * Draws the density of the visible time range.
+     * @param projection Camera projection
+     * @param pyramid Event counts
+     * @param viewBottom Lower edge of the view in world units
+     * @param viewTop Upper edge of the view in world units
+     * @param zoom Camera zoom (world units per screen pixel)
+     */
+    public void draw(Matrix4 projection, DensityPyramid pyramid, float viewBottom, float viewTop, float zoom) {
+        int level = 0;
+        while (level < DensityPyramid.LEVELS - 1
+                && (pyramid.getBinHeight(level) / zoom < MIN_BIN_PIXELS
+                    || (viewTop - viewBottom) / pyramid.getBinHeight(level) >= MAX_ROWS - 1)) {
+            level++;
+        }
+        float binHeight = pyramid.getBinHeight(level);
+        int firstBin = Math.max(0, (int) Math.floor(viewBottom / binHeight));
+        int lastBin = Math.min(pyramid.getBinCount(level) - 1, (int) Math.floor(viewTop / binHeight));
+        int rows = Math.min(MAX_ROWS, lastBin - firstBin + 1);
+        if (rows <= 0) {
+            return;
+        }
+
+        if (level != cachedLevel || firstBin != cachedFirstBin || rows != cachedRows
+                || pyramid.getModCount() != cachedModCount) {
+            fill(pyramid, level, firstBin, rows, binHeight / pixelsPerSecond);
+            texture.draw(pixmap, 0, 0);
+            cachedLevel = level;
+            cachedFirstBin = firstBin;
+            cachedRows = rows;
+            cachedModCount = pyramid.getModCount();
+        }
+
+        // Pixmap row 0 is the top of the region, so the last bin was written first
+        region.setRegion(0, 0, DensityPyramid.X_BINS, rows);
+        batch.setProjectionMatrix(projection);
+        batch.begin();
+        batch.draw(region, 0f, firstBin * binHeight, pyramid.getWidth(), rows * binHeight);
+        batch.end();
+    }
+
+    private void fill(DensityPyramid pyramid, int level, int firstBin, int rows, float binSeconds) {
+        float saturation = (float) Math.log1p(SATURATION_PER_SECOND * binSeconds);
+        for (int row = 0; row < rows; row++) {
+            int bin = firstBin + row;
+            int pixelY = rows - 1 - row;
+            for (int xBin = 0; xBin < DensityPyramid.X_BINS; xBin++) {
+                float r = 0f;
+                float g = 0f;
+                float b = 0f;
+                int total = 0;
+                for (int t = 0; t < TYPES.length; t++) {
+                    int count = pyramid.getCount(level, bin, xBin, t);
+                    if (count > 0) {
+                        Color color = EventActor.getTypeColor(TYPES[t]);
+                        r += color.r * count;
+                        g += color.g * count;
+                        b += color.b * count;
+                        total += count;
+                    }
+                }
+                if (total == 0) {
+                    pixmap.drawPixel(xBin, pixelY, 0);
+                    continue;
+                }
+                float alpha = Math.min(1f, MIN_ALPHA + (1f - MIN_ALPHA) * (float) Math.log1p(total) / saturation);
+                pixmap.drawPixel(xBin, pixelY, Color.rgba8888(r / total, g / total, b / total, alpha));
+            }
+        }
+    }
+
+    @Override
+    public void dispose() {
+        batch.dispose();
+        pixmap.dispose();
+        texture.dispose();
+    }
+}
@@ -0,0 +1,142 @@
+package com.leveleditor.editor;
+
+import com.leveleditor.model.EventType;
+
+import java.util.Arrays;
+
+/**
+ * Multi-resolution event counts per (time bin, x bin, event type).
+ * Level 0 uses the base bin height; every further level merges two bins of the
+ * level below. Counts are updated incrementally as actors are added, moved and
+ * removed, so a zoomed-out view can read a fixed number of bins at any level length.
+ */
+public class DensityPyramid {
+    public static final int X_BINS = 32;
+    public static final int LEVELS = 16;
+    private static final int TYPE_COUNT = EventType.values().length;
+    private static final int ROW_STRIDE = X_BINS * TYPE_COUNT;
+
+    private final float baseBinHeight;
+    private float width;
+    private final int[][] counts;
+    private final int[] binCounts;
+    private int modCount;
+
+    /**
+     * Creates an empty pyramid.
+     * @param baseBinHeight Height of a level 0 bin in world units
+     * @param width World width covered by the x bins
+     */
+    public DensityPyramid(float baseBinHeight, float width) {
+        this.baseBinHeight = baseBinHeight;
+        this.width = width;
+        this.counts = new int[LEVELS][];
+        this.binCounts = new int[LEVELS];
+        for (int level = 0; level < LEVELS; level++) {
+            counts[level] = new int[ROW_STRIDE * 16];
+        }
+        this.modCount = 0;
+    }
+
+    /**
+     * Counts an actor at its current center.
+     */
+    public void add(EventActor actor) {
+        update(actor, 1);
+    }
+
+    /**
+     * Uncounts an actor. Must be called before the actor is moved.
+     */
+    public void remove(EventActor actor) {
+        update(actor, -1);
+    }
+
+    /**
+     * Removes all counts.
+     */
+    public void clear() {
+        for (int level = 0; level < LEVELS; level++) {
+            Arrays.fill(counts[level], 0, binCounts[level] * ROW_STRIDE, 0);
+            binCounts[level] = 0;
+        }
+        modCount++;
+    }
+
+    /**
+     * Changes the world width covered by the x bins. Clears the pyramid; the caller re-adds the actors.
+     */
+    public void setWidth(float width) {
+        this.width = width;
+        clear();
+    }
+
+    public float getWidth() {
+        return width;
+    }
+
+    /**
+     * Gets the height of one bin at the given level in world units.
+     */
+    public float getBinHeight(int level) {
+        return baseBinHeight * (1 << level);
+    }
+
+    /**
+     * Gets the number of bins in use at the given level (bins past it are empty).
+     */
+    public int getBinCount(int level) {
+        return binCounts[level];
+    }
+
+    /**
+     * Gets the number of events of a type in one cell.
+     */
+    public int getCount(int level, int bin, int xBin, EventType type) {
+        return getCount(level, bin, xBin, type.ordinal());
+    }
+
+    /**
+     * Gets the number of events of a type (by ordinal) in one cell.
+     */
+    public int getCount(int level, int bin, int xBin, int typeOrdinal) {
+        if (bin < 0 || bin >= binCounts[level]) {
+            return 0;
+        }
+        return counts[level][bin * ROW_STRIDE + xBin * TYPE_COUNT + typeOrdinal];
+    }
+
+    /**
+     * Gets a counter that changes whenever any count changes.
+     */
+    public int getModCount() {
+        return modCount;
+    }
+
+    private void update(EventActor actor, int delta) {
+        float centerX = actor.getX() + EventActor.getEventSize() / 2;
+        float centerY = actor.getY() + EventActor.getEventSize() / 2;
+        int baseBin = Math.max(0, (int) Math.floor(centerY / baseBinHeight));
+        int xBin = Math.max(0, Math.min(X_BINS - 1, (int) (centerX / width * X_BINS)));
+        int offset = xBin * TYPE_COUNT + actor.getEvent().type.ordinal();
+
+        for (int level = 0; level < LEVELS; level++) {
+            int bin = baseBin >> level;
+            ensureBins(level, bin + 1);
+            counts[level][bin * ROW_STRIDE + offset] += delta;
+        }
+        modCount++;
+    }
+
+    private void ensureBins(int level, int bins) {
+        if (bins > binCounts[level]) {
+            int needed = bins * ROW_STRIDE;
+            if (needed > counts[level].length) {
+                int[] grown = new int[Math.max(needed, counts[level].length * 2)];
+                System.arraycopy(counts[level], 0, grown, 0, binCounts[level] * ROW_STRIDE);
+                counts[level] = grown;
+            }
+            binCounts[level] = bins;
+        }
+    }
+}
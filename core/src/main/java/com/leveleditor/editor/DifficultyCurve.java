@@ -0,0 +1,242 @@
+package com.leveleditor.editor;
+
+import com.badlogic.gdx.utils.Array;
+import com.leveleditor.model.Formation;
+import com.leveleditor.model.FormationData;
+import com.leveleditor.model.LevelEvent;
+import com.leveleditor.player.EnemySimulation;
+
+import java.util.Arrays;
+
+/**
+ * Per-second spawn counts of a level for balancing: enemies (formation members counted
+ * one by one), bosses and power-ups, each kept in a Fenwick tree over fixed time bins.
+ * Edits update a single bin in O(log bins) and any time range is summed in O(log bins),
+ * so a plot of the whole level costs the same whatever the number of events.
+ *
+ * Events must be removed with the same formations they were added with. A formation
+ * edit changes how many enemies its events count for; {@link #isStale} reports it and
+ * the owner rebuilds the curve.
+ */
+public class DifficultyCurve {
+    public static final float BIN_SECONDS = 1f;
+    // Time an enemy at the default speed takes to cross the screen and leave it
+    public static final float LIVE_SECONDS = (1f + EnemySimulation.CULL_MARGIN) / EnemySimulation.SCREENS_PER_SECOND;
+
+    private static final int INITIAL_BINS = 256;
+
+    // Fenwick trees, 1-based: tree[i] covers bins (i - lowbit(i), i]
+    private int[] enemies;
+    private int[] bosses;
+    private int[] powerUps;
+    private int binCount; // Bins up to the last one ever used
+    private int capacity;
+
+    private FormationData formationData;
+    private int formationVersion;
+    private int modCount;
+
+    public DifficultyCurve() {
+        capacity = INITIAL_BINS;
+        enemies = new int[capacity + 1];
+        bosses = new int[capacity + 1];
+        powerUps = new int[capacity + 1];
+    }
+
+    /**
+     * Sets the formations used to count the enemies of FORMATION events. Does not recount.
+     */
+    public void setFormationData(FormationData formationData) {
+        this.formationData = formationData;
+        this.formationVersion = formationData != null ? formationData.getVersion() : 0;
+    }
+
+    /**
+     * Checks whether the formations changed since the counts were made.
+     */
+    public boolean isStale(FormationData formationData) {
+        return formationData != this.formationData
+            || (formationData != null && formationData.getVersion() != formationVersion);
+    }
+
+    /**
+     * Recounts all events, e.g. after a level was loaded or the formations changed.
+     */
+    public void rebuild(Array<LevelEvent> events, FormationData formationData) {
+        clear();
+        setFormationData(formationData);
+        for (LevelEvent event : events) {
+            add(event);
+        }
+    }
+
+    /**
+     * Removes all counts.
+     */
+    public void clear() {
+        Arrays.fill(enemies, 0);
+        Arrays.fill(bosses, 0);
+        Arrays.fill(powerUps, 0);
+        binCount = 0;
+        modCount++;
+    }
+
+    /**
+     * Counts an event at its current time.
+     */
+    public void add(LevelEvent event) {
+        update(event, 1);
+    }
+
+    /**
+     * Uncounts an event. Must be called before the event is moved or changed.
+     */
+    public void remove(LevelEvent event) {
+        update(event, -1);
+    }
+
+    private void update(LevelEvent event, int delta) {
+        int bin = binOf(event.time);
+        if (bin >= capacity) {
+            grow(bin + 1);
+        }
+        binCount = Math.max(binCount, bin + 1);
+        switch (event.type) {
+            case BOSS:
+                add(bosses, bin, delta);
+                add(enemies, bin, delta);
+                break;
+            case POWER_UP:
+                add(powerUps, bin, delta);
+                break;
+            case FORMATION:
+                add(enemies, bin, delta * getEnemyCount(event));
+                break;
+            default:
+                add(enemies, bin, delta);
+                break;
+        }
+        modCount++;
+    }
+
+    private int getEnemyCount(LevelEvent event) {
+        Formation formation = formationData != null ? formationData.getFormationById(event.formationId) : null;
+        // As in the compiled spawn table: one enemy per member, so none for an empty
+        // formation, and a single enemy for an unknown formation
+        return formation != null ? formation.relativePositions.size : 1;
+    }
+
+    private void add(int[] tree, int bin, int delta) {
+        for (int i = bin + 1; i <= capacity; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    /**
+     * Sums bins [0, bins).
+     */
+    private int prefix(int[] tree, int bins) {
+        int sum = 0;
+        for (int i = Math.min(bins, capacity); i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    private void grow(int bins) {
+        int grown = capacity;
+        while (grown < bins) {
+            grown *= 2;
+        }
+        enemies = grow(enemies, grown);
+        bosses = grow(bosses, grown);
+        powerUps = grow(powerUps, grown);
+        capacity = grown;
+    }
+
+    /**
+     * Rebuilds a tree with more bins: back to per-bin values, then the linear-time build.
+     */
+    private int[] grow(int[] tree, int grown) {
+        int[] values = new int[grown + 1];
+        for (int i = 1; i <= capacity; i++) {
+            values[i] = prefix(tree, i) - prefix(tree, i - 1);
+        }
+        for (int i = 1; i <= grown; i++) {
+            int parent = i + (i & -i);
+            if (parent <= grown) {
+                values[parent] += values[i];
+            }
+        }
+        return values;
+    }
+
+    private static int binOf(float time) {
+        return Math.max(0, (int) (time / BIN_SECONDS));
+    }
+
+    /**
+     * Gets the number of enemies spawned in the bins overlapping [from, to).
+     */
+    public int getEnemies(float from, float to) {
+        return sum(enemies, from, to);
+    }
+
+    /**
+     * Gets the number of bosses in the bins overlapping [from, to).
+     */
+    public int getBosses(float from, float to) {
+        return sum(bosses, from, to);
+    }
+
+    /**
+     * Gets the number of power-ups in the bins overlapping [from, to).
+     */
+    public int getPowerUps(float from, float to) {
+        return sum(powerUps, from, to);
+    }
+
+    /**
+     * Gets the average number of enemies spawned per second over the bins overlapping [from, to).
+     */
+    public float getSpawnsPerSecond(float from, float to) {
+        int first = binOf(from);
+        return sum(enemies, from, to) / ((lastBin(first, to) - first) * BIN_SECONDS);
+    }
+
+    /**
+     * Estimates how many enemies are alive at a time: those spawned less than
+     * {@link #LIVE_SECONDS} earlier, to bin precision.
+     */
+    public int getLiveEstimate(float time) {
+        int end = binOf(time) + 1;
+        int start = Math.max(0, end - (int) Math.ceil(LIVE_SECONDS / BIN_SECONDS));
+        return prefix(enemies, end) - prefix(enemies, start);
+    }
+
+    private int sum(int[] tree, float from, float to) {
+        int first = binOf(from);
+        return prefix(tree, lastBin(first, to)) - prefix(tree, first);
+    }
+
+    /**
+     * Gets the end of the bin range that starts at a bin and overlaps up to a time, at least one bin.
+     */
+    private static int lastBin(int first, float to) {
+        return Math.max(first + 1, (int) Math.ceil(to / BIN_SECONDS));
+    }
+
+    /**
+     * Gets the time covered by the bins in use.
+     */
+    public float getEndTime() {
+        return binCount * BIN_SECONDS;
+    }
+
+    /**
+     * Gets a counter that changes whenever any count changes.
+     */
+    public int getModCount() {
+        return modCount;
+    }
+}
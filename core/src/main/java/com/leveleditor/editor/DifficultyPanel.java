@@ -0,0 +1,218 @@
+package com.leveleditor.editor;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.utils.Disposable;
+import com.leveleditor.model.EventType;
+
+import java.util.Locale;
+
+/**
+ * Draws the {@link DifficultyCurve} of the whole level in a strip on the right edge of
+ * the screen, time running up like the timeline: enemies spawned per second, the
+ * estimated number of enemies alive, and ticks where bosses and power-ups appear. The
+ * visible time range and the preview time are marked on top.
+ *
+ * The plot is rendered into a texture with one row per pixel, and only refilled when
+ * the curve, the level length or the panel height change. A refill costs a few range
+ * sums per row; other frames draw the texture and a few lines, whatever the level size.
+ */
+public class DifficultyPanel implements Disposable {
+    public static final float WIDTH = 120f;
+    private static final int MAX_ROWS = 2048;
+    private static final float PADDING = 8f;
+    private static final float TOP_MARGIN = PADDING * 6;    // Below the toolbar
+    private static final float BOTTOM_MARGIN = PADDING * 5; // Above the status label
+
+    // Columns of the plot texture
+    private static final int COLUMNS = (int) WIDTH;
+    private static final int SPAWN_BAR_END = 50;
+    private static final int LIVE_BAR_START = 54;
+    private static final int LIVE_BAR_END = 100;
+    private static final int BOSS_START = 104;
+    private static final int POWER_UP_START = 112;
+    private static final int MARKER_WIDTH = 7;
+
+    private static final Color BACKGROUND = new Color(0f, 0f, 0f, 0.6f);
+    private static final Color LIVE_COLOR = new Color(0.4f, 0.7f, 1f, 1f);
+    private static final Color VIEW_COLOR = new Color(1f, 1f, 1f, 0.15f);
+
+    private final BitmapFont font;
+    private final ShapeRenderer shapeRenderer;
+    private final SpriteBatch batch;
+    private final Matrix4 projection = new Matrix4();
+    private final Pixmap pixmap;
+    private final Texture texture;
+    private final TextureRegion region;
+    private final StringBuilder caption = new StringBuilder();
+
+    // Per-row values of the last refill
+    private final float[] spawnRates = new float[MAX_ROWS];
+    private final int[] liveEstimates = new int[MAX_ROWS];
+
+    // What the texture currently shows, to skip refilling unchanged frames
+    private int cachedModCount = -1;
+    private int cachedRows;
+    private float cachedDuration;
+
+    private boolean visible = true;
+
+    public DifficultyPanel(BitmapFont font) {
+        this.font = font;
+        shapeRenderer = new ShapeRenderer();
+        batch = new SpriteBatch();
+        pixmap = new Pixmap(COLUMNS, MAX_ROWS, Pixmap.Format.RGBA8888);
+        pixmap.setBlending(Pixmap.Blending.None);
+        texture = new Texture(COLUMNS, MAX_ROWS, Pixmap.Format.RGBA8888);
+        texture.setFilter(Texture.TextureFilter.Nearest, Texture.TextureFilter.Nearest);
+        region = new TextureRegion(texture);
+    }
+
+    /**
+     * Draws the panel on top of the current frame.
+     * @param curve Spawn counts of the level
+     * @param levelLength Level length in seconds; the plot also covers events past it
+     * @param viewStart Time at the bottom of the timeline view
+     * @param viewEnd Time at the top of the timeline view
+     * @param previewTime Current preview time, or a negative value outside preview mode
+     */
+    public void draw(DifficultyCurve curve, float levelLength, float viewStart, float viewEnd, float previewTime) {
+        if (!visible) {
+            return;
+        }
+        int width = Gdx.graphics.getBackBufferWidth();
+        int height = Gdx.graphics.getBackBufferHeight();
+        projection.setToOrtho2D(0, 0, width, height);
+
+        float panelX = width - WIDTH;
+        float panelY = BOTTOM_MARGIN;
+        float panelHeight = height - TOP_MARGIN - BOTTOM_MARGIN;
+        float captionHeight = font.getLineHeight() * 2 + PADDING;
+        float plotY = panelY + PADDING;
+        float plotHeight = panelHeight - captionHeight - PADDING;
+        int rows = Math.min(MAX_ROWS, (int) plotHeight);
+        if (rows <= 0) {
+            return;
+        }
+
+        float duration = Math.max(DifficultyCurve.BIN_SECONDS, Math.max(levelLength, curve.getEndTime()));
+        if (curve.getModCount() != cachedModCount || rows != cachedRows || duration != cachedDuration) {
+            fill(curve, rows, duration);
+            texture.draw(pixmap, 0, 0);
+            cachedModCount = curve.getModCount();
+            cachedRows = rows;
+            cachedDuration = duration;
+        }
+        float plotScale = plotHeight / duration;
+
+        Gdx.gl.glEnable(GL20.GL_BLEND);
+        Gdx.gl.glBlendFunc(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+        shapeRenderer.setProjectionMatrix(projection);
+        shapeRenderer.begin(ShapeRenderer.ShapeType.Filled);
+        shapeRenderer.setColor(BACKGROUND);
+        shapeRenderer.rect(panelX, panelY, WIDTH, panelHeight);
+        shapeRenderer.end();
+
+        // Pixmap row 0 is the top of the region, so the end of the level was written first
+        region.setRegion(0, 0, COLUMNS, rows);
+        batch.setProjectionMatrix(projection);
+        batch.begin();
+        batch.draw(region, panelX, plotY, WIDTH, plotHeight);
+        batch.end();
+
+        shapeRenderer.begin(ShapeRenderer.ShapeType.Filled);
+        float viewBottom = plotY + Math.max(0f, viewStart) * plotScale;
+        float viewTop = plotY + Math.min(duration, viewEnd) * plotScale;
+        if (viewTop > viewBottom) {
+            shapeRenderer.setColor(VIEW_COLOR);
+            shapeRenderer.rect(panelX, viewBottom, WIDTH, Math.max(1f, viewTop - viewBottom));
+        }
+        if (previewTime >= 0f) {
+            shapeRenderer.setColor(Color.YELLOW);
+            shapeRenderer.rect(panelX, plotY + Math.min(duration, previewTime) * plotScale, WIDTH, 1f);
+        }
+        shapeRenderer.end();
+        Gdx.gl.glDisable(GL20.GL_BLEND);
+
+        batch.begin();
+        font.draw(batch, caption, panelX + PADDING / 2, panelY + panelHeight - PADDING / 2);
+        batch.end();
+    }
+
+    private void fill(DifficultyCurve curve, int rows, float duration) {
+        float secondsPerRow = duration / rows;
+        float maxRate = 0f;
+        int maxLive = 0;
+        for (int row = 0; row < rows; row++) {
+            float from = row * secondsPerRow;
+            float to = from + secondsPerRow;
+            spawnRates[row] = curve.getSpawnsPerSecond(from, to);
+            liveEstimates[row] = curve.getLiveEstimate(to);
+            maxRate = Math.max(maxRate, spawnRates[row]);
+            maxLive = Math.max(maxLive, liveEstimates[row]);
+        }
+
+        int spawnColor = Color.rgba8888(EventActor.getTypeColor(EventType.ENEMY));
+        int liveColor = Color.rgba8888(LIVE_COLOR);
+        int bossColor = Color.rgba8888(EventActor.getTypeColor(EventType.BOSS));
+        int powerUpColor = Color.rgba8888(EventActor.getTypeColor(EventType.POWER_UP));
+        pixmap.setColor(0);
+        pixmap.fill();
+        for (int row = 0; row < rows; row++) {
+            int pixelY = rows - 1 - row;
+            float from = row * secondsPerRow;
+            float to = from + secondsPerRow;
+            if (maxRate > 0f) {
+                int length = Math.round(spawnRates[row] / maxRate * SPAWN_BAR_END);
+                drawSpan(0, length, pixelY, spawnColor);
+            }
+            if (maxLive > 0) {
+                int length = Math.round(liveEstimates[row] / (float) maxLive * (LIVE_BAR_END - LIVE_BAR_START));
+                drawSpan(LIVE_BAR_START, LIVE_BAR_START + length, pixelY, liveColor);
+            }
+            if (curve.getBosses(from, to) > 0) {
+                drawSpan(BOSS_START, BOSS_START + MARKER_WIDTH, pixelY, bossColor);
+            }
+            if (curve.getPowerUps(from, to) > 0) {
+                drawSpan(POWER_UP_START, POWER_UP_START + MARKER_WIDTH, pixelY, powerUpColor);
+            }
+        }
+
+        caption.setLength(0);
+        caption.append(String.format(Locale.ROOT, "peak %.1f spawns/s\npeak %d live", maxRate, maxLive));
+    }
+
+    private void drawSpan(int fromX, int toX, int y, int color) {
+        if (toX > fromX) {
+            pixmap.setColor(color);
+            pixmap.fillRectangle(fromX, y, toX - fromX, 1);
+        }
+    }
+
+    /**
+     * Shows or hides the panel.
+     */
+    public void setVisible(boolean visible) {
+        this.visible = visible;
+    }
+
+    public boolean isVisible() {
+        return visible;
+    }
+
+    @Override
+    public void dispose() {
+        shapeRenderer.dispose();
+        batch.dispose();
+        pixmap.dispose();
+        texture.dispose();
+    }
+}
@@ -0,0 +1,403 @@
+package com.leveleditor.editor;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.StreamUtils;
+import com.leveleditor.model.EventType;
+import com.leveleditor.model.LevelData;
+import com.leveleditor.model.LevelEvent;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of the edits made since a level was last loaded or saved.
+ * Each create/move/delete/property change is appended as a small record and flushed
+ * immediately, so unsaved work can be rebuilt after a crash by loading the base level
+ * and replaying the records. Events are addressed by their index in the time-sorted
+ * event list, which replays identically because {@link LevelData} orders events
+ * deterministically. Saving the level compacts the journal back to a bare header.
+ *
+ * Methods are synchronized because a background save rebases the journal while the
+ * render thread keeps appending.
+ */
+public class EditJournal {
+    private static final int MAGIC = 0x4C4A524E; // "LJRN"
+    private static final int VERSION = 1;
+
+    private static final byte OP_CREATE = 1;
+    private static final byte OP_DELETE = 2;
+    private static final byte OP_MOVE = 3;
+    private static final byte OP_PROPERTIES = 4;
+
+    private static final EventType[] TYPES = EventType.values();
+
+    /**
+     * Identifies the level a journal applies to.
+     */
+    public static class Base {
+        public final String filename;   // Level file name, or null for a new empty level
+        public final long length;       // Length of the level file in bytes
+        public final long checksum;     // CRC32 of the level file
+        public final float levelLength; // Length of a new empty level in seconds
+
+        public Base(String filename, long length, long checksum, float levelLength) {
+            this.filename = filename;
+            this.length = length;
+            this.checksum = checksum;
+            this.levelLength = levelLength;
+        }
+
+        /**
+         * Creates the base for a new, unsaved level.
+         */
+        public static Base emptyLevel(float levelLength) {
+            return new Base(null, 0, 0, levelLength);
+        }
+
+        /**
+         * Creates the base for a level file, fingerprinting its current content.
+         */
+        public static Base ofFile(String filename, FileHandle file, float levelLength) throws IOException {
+            CRC32 crc = new CRC32();
+            long length = 0;
+            byte[] buffer = new byte[64 * 1024];
+            InputStream input = file.read();
+            try {
+                int count;
+                while ((count = input.read(buffer)) != -1) {
+                    crc.update(buffer, 0, count);
+                    length += count;
+                }
+            } finally {
+                StreamUtils.closeQuietly(input);
+            }
+            return new Base(filename, length, crc.getValue(), levelLength);
+        }
+
+        /**
+         * Checks whether a level file still has the content this journal was started from.
+         */
+        public boolean matches(FileHandle file) throws IOException {
+            Base current = ofFile(filename, file, levelLength);
+            return current.length == length && current.checksum == checksum;
+        }
+    }
+
+    private final File file;
+    private DataOutputStream out;
+    // Records appended since a save took its snapshot; they become the rebased journal
+    private ByteArrayOutputStream pendingBytes;
+    private DataOutputStream pending;
+
+    /**
+     * @param file Location of the journal
+     */
+    public EditJournal(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Starts an empty journal for a level, replacing any previous journal.
+     */
+    public synchronized void start(Base base) throws IOException {
+        close();
+        pending = null;
+        pendingBytes = null;
+        writeJournal(base, null);
+        open();
+    }
+
+    /**
+     * Continues appending to an existing journal, e.g. after recovering from it.
+     */
+    public synchronized void resume() throws IOException {
+        close();
+        open();
+    }
+
+    /**
+     * Marks the point at which a save took its snapshot; later records are kept for {@link #rebase}.
+     */
+    public synchronized void beginSnapshot() {
+        pendingBytes = new ByteArrayOutputStream();
+        pending = new DataOutputStream(pendingBytes);
+    }
+
+    /**
+     * Replaces the journal after a successful save: the saved file becomes the base and
+     * only the edits made since the snapshot are kept.
+     */
+    public synchronized void rebase(Base base) throws IOException {
+        close();
+        byte[] records = pendingBytes != null ? pendingBytes.toByteArray() : null;
+        pending = null;
+        pendingBytes = null;
+        writeJournal(base, records);
+        open();
+    }
+
+    /**
+     * Forgets the snapshot point after a failed save; the journal keeps all records.
+     */
+    public synchronized void cancelSnapshot() {
+        pending = null;
+        pendingBytes = null;
+    }
+
+    public synchronized void recordCreate(LevelEvent event) {
+        try {
+            for (DataOutputStream stream = out; stream != null; stream = next(stream)) {
+                stream.writeByte(OP_CREATE);
+                stream.writeFloat(event.time);
+                stream.writeByte(event.type != null ? event.type.ordinal() : 0);
+                stream.writeFloat(event.x);
+                writeNullableString(stream, event.enemyType);
+                writeNullableString(stream, event.formationId);
+            }
+            flush();
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    public synchronized void recordDelete(int index) {
+        try {
+            for (DataOutputStream stream = out; stream != null; stream = next(stream)) {
+                stream.writeByte(OP_DELETE);
+                stream.writeInt(index);
+            }
+            flush();
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    public synchronized void recordMove(int index, float time, float x) {
+        try {
+            for (DataOutputStream stream = out; stream != null; stream = next(stream)) {
+                stream.writeByte(OP_MOVE);
+                stream.writeInt(index);
+                stream.writeFloat(time);
+                stream.writeFloat(x);
+            }
+            flush();
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    public synchronized void recordProperties(int index, String enemyType, String formationId) {
+        try {
+            for (DataOutputStream stream = out; stream != null; stream = next(stream)) {
+                stream.writeByte(OP_PROPERTIES);
+                stream.writeInt(index);
+                writeNullableString(stream, enemyType);
+                writeNullableString(stream, formationId);
+            }
+            flush();
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Closes the journal file. It stays on disk so the edits can be recovered later.
+     */
+    public synchronized void close() {
+        StreamUtils.closeQuietly(out);
+        out = null;
+    }
+
+    /**
+     * Checks whether the journal file holds at least one edit.
+     */
+    public boolean hasEdits() {
+        DataInputStream input = null;
+        try {
+            if (!file.exists()) {
+                return false;
+            }
+            input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            readHeader(input);
+            return input.read() != -1;
+        } catch (IOException e) {
+            return false;
+        } finally {
+            StreamUtils.closeQuietly(input);
+        }
+    }
+
+    /**
+     * Reads the base level of the journal file.
+     */
+    public Base readBase() throws IOException {
+        DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        try {
+            return readHeader(input);
+        } finally {
+            StreamUtils.closeQuietly(input);
+        }
+    }
+
+    /**
+     * Applies the journaled edits to a level loaded from the journal's base.
+     * A record cut short by a crash ends the replay.
+     * @return Number of edits applied
+     */
+    public int replay(LevelData levelData) throws IOException {
+        DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+        int applied = 0;
+        try {
+            readHeader(input);
+            while (true) {
+                int op = input.read();
+                if (op == -1) {
+                    break;
+                }
+                if (!apply(op, input, levelData)) {
+                    break;
+                }
+                applied++;
+            }
+        } catch (EOFException e) {
+            // Last record was only partially written
+        } finally {
+            StreamUtils.closeQuietly(input);
+        }
+        return applied;
+    }
+
+    private static boolean apply(int op, DataInputStream input, LevelData levelData) throws IOException {
+        switch (op) {
+            case OP_CREATE: {
+                LevelEvent event = new LevelEvent();
+                event.time = input.readFloat();
+                int type = input.readUnsignedByte();
+                event.type = TYPES[Math.min(type, TYPES.length - 1)];
+                event.x = input.readFloat();
+                event.enemyType = readNullableString(input);
+                event.formationId = readNullableString(input);
+                levelData.addEvent(event);
+                return true;
+            }
+            case OP_DELETE: {
+                int index = input.readInt();
+                if (index < 0 || index >= levelData.events.size) {
+                    return false;
+                }
+                levelData.removeEvent(levelData.events.get(index));
+                return true;
+            }
+            case OP_MOVE: {
+                int index = input.readInt();
+                float time = input.readFloat();
+                float x = input.readFloat();
+                if (index < 0 || index >= levelData.events.size) {
+                    return false;
+                }
+                levelData.moveEvent(levelData.events.get(index), time, x);
+                return true;
+            }
+            case OP_PROPERTIES: {
+                int index = input.readInt();
+                String enemyType = readNullableString(input);
+                String formationId = readNullableString(input);
+                if (index < 0 || index >= levelData.events.size) {
+                    return false;
+                }
+                LevelEvent event = levelData.events.get(index);
+                event.enemyType = enemyType;
+                event.formationId = formationId;
+                return true;
+            }
+            default:
+                return false;
+        }
+    }
+
+    private void writeJournal(final Base base, final byte[] records) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream header = new DataOutputStream(bytes);
+        header.writeInt(MAGIC);
+        header.writeInt(VERSION);
+        writeNullableString(header, base.filename);
+        header.writeLong(base.length);
+        header.writeLong(base.checksum);
+        header.writeFloat(base.levelLength);
+        if (records != null) {
+            header.write(records);
+        }
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes.toByteArray());
+
+        file.getAbsoluteFile().getParentFile().mkdirs();
+        AtomicFileWriter.write(file, new AtomicFileWriter.Content() {
+            @Override
+            public void write(FileChannel channel) throws IOException {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+        });
+    }
+
+    private static Base readHeader(DataInputStream input) throws IOException {
+        if (input.readInt() != MAGIC) {
+            throw new IOException("Not an edit journal");
+        }
+        int version = input.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported edit journal version: " + version);
+        }
+        String filename = readNullableString(input);
+        long length = input.readLong();
+        long checksum = input.readLong();
+        float levelLength = input.readFloat();
+        return new Base(filename, length, checksum, levelLength);
+    }
+
+    private void open() throws IOException {
+        out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file, true)));
+    }
+
+    /**
+     * Returns the stream to write the same record to after the journal file, if any.
+     */
+    private DataOutputStream next(DataOutputStream stream) {
+        return stream == out ? pending : null;
+    }
+
+    private void flush() throws IOException {
+        if (out != null) {
+            out.flush();
+        }
+    }
+
+    private void fail(IOException e) {
+        // Keep editing even if the journal cannot be written; only crash recovery is lost
+        e.printStackTrace();
+        close();
+    }
+
+    private static void writeNullableString(DataOutputStream stream, String value) throws IOException {
+        stream.writeBoolean(value != null);
+        if (value != null) {
+            stream.writeUTF(value);
+        }
+    }
+
+    private static String readNullableString(DataInputStream input) throws IOException {
+        return input.readBoolean() ? input.readUTF() : null;
+    }
+}
@@ -2,40 +2,128 @@ package com.leveleditor.editor;
 
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.async.AsyncExecutor;
+import com.badlogic.gdx.utils.async.AsyncResult;
+import com.badlogic.gdx.utils.async.AsyncTask;
 import com.leveleditor.model.EventType;
 import com.leveleditor.model.FormationData;
 import com.leveleditor.model.LevelData;
 import com.leveleditor.model.LevelEvent;
+import com.leveleditor.model.SpawnTable;
+import com.leveleditor.model.SpawnTableCompiler;
+import com.leveleditor.player.EnemySimulation;
+import com.leveleditor.player.LevelPlayer;
+import com.leveleditor.player.SpawnRecord;
+
+import java.io.IOException;
 
 /**
  * Controller that manages the level data and coordinates between the model and view.
  */
 public class EditorController {
+    /**
+     * Receives the outcome of a background save or load on the render thread.
+     */
+    public interface IoCallback {
+        void finished(String message);
+    }
+
+    public static final float MIN_PREVIEW_SPEED = 0.25f;
+    public static final float MAX_PREVIEW_SPEED = 16f;
+    private static final String JOURNAL_PATH = "levels/.unsaved.journal";
+
     private LevelData levelData;
     private LevelSerializer serializer;
+    private BinaryLevelSerializer binarySerializer;
     private FormationData formationData;
     private FormationSerializer formationSerializer;
+    private final LevelCompiler levelCompiler = new LevelCompiler();
     private TimelineView timelineView;
     private EventActor selectedActor;
+
+    // Background saving and loading (one operation at a time)
+    private final AsyncExecutor ioExecutor;
+    private AsyncResult<Void> ioTask;
+
+    // Edits since the last load/save, for crash recovery
+    private final EditJournal journal;
+
+    // Spawn counts over time for the difficulty panel, kept up to date by every edit
+    private final DifficultyCurve difficultyCurve = new DifficultyCurve();
+
+    // Events spawning on top of each other; edits re-check the events within reach of them
+    private final ConflictDetector conflictDetector = new ConflictDetector();
+    private final Array<LevelEvent> conflicts = new Array<>(false, 64, LevelEvent.class);
+    private int conflictCount;
+
+    // Undo/redo; applies its edits through the same methods as regular edits
+    private final UndoHistory history = new UndoHistory(new UndoHistory.Target() {
+        @Override
+        public void insertEvent(LevelEvent event) {
+            addEvent(event);
+        }
+
+        @Override
+        public void removeEvent(LevelEvent event) {
+            EditorController.this.removeEvent(event);
+        }
+
+        @Override
+        public void moveEvent(LevelEvent event, float time, float x) {
+            EditorController.this.moveEvent(event, time, x);
+            EventActor actor = timelineView.getActorForEvent(event);
+            if (actor != null) {
+                timelineView.updateEventActorPosition(actor);
+            }
+        }
+
+        @Override
+        public void setEventProperties(LevelEvent event, String enemyType, String formationId) {
+            EditorController.this.setEventProperties(event, enemyType, formationId);
+        }
+    });
     
-    // Preview mode state
+    // Preview mode state; the player's cursor is the index of the next event to trigger
     private boolean previewMode;
-    private float previewTime;
+    // Enemies spawned by the preview, simulated from the level compiled at preview start
+    private final EnemySimulation simulation = new EnemySimulation();
+    private final SpawnTableCompiler previewCompiler = new SpawnTableCompiler();
+    private final LevelPlayer previewPlayer = new LevelPlayer(new LevelPlayer.SpawnListener() {
+        @Override
+        public void spawn(SpawnRecord spawn) {
+            EventActor actor = timelineView.getActorForEvent(levelData.events.get(spawn.sourceEvent));
+            if (actor != null) {
+                actor.setTriggered(true);
+            }
+        }
+    });
 
     public EditorController(TimelineView timelineView) {
         this.timelineView = timelineView;
         this.levelData = new LevelData(120f); // Default 2 minutes
         this.serializer = new LevelSerializer();
+        this.binarySerializer = new BinaryLevelSerializer();
         this.formationSerializer = new FormationSerializer();
         this.selectedActor = null;
+        this.ioExecutor = new AsyncExecutor(1, "LevelIO");
+        this.ioTask = null;
+        this.journal = new EditJournal(Gdx.files.local(JOURNAL_PATH).file());
         this.previewMode = false;
-        this.previewTime = 0f;
+        previewPlayer.setLevel(levelData);
         
         // Load formations
         loadFormations();
+        difficultyCurve.setFormationData(formationData);
         
         // Pass formation data to timeline view
         timelineView.setFormationData(formationData);
+        timelineView.setSimulation(simulation);
+
+        // Keep an unrecovered journal until the user decides what to do with it
+        if (!hasRecoverableEdits()) {
+            startJournal(EditJournal.Base.emptyLevel(levelData.levelLength));
+        }
     }
 
     private FileHandle getLocalLevelFile(String filename) {
@@ -51,11 +139,8 @@ public class EditorController {
      */
     public void createEvent(EventType type, float time, float x) {
         LevelEvent event = new LevelEvent(time, type, x);
-        levelData.addEvent(event);
-        
-        EventActor actor = new EventActor(event);
-        timelineView.addEventActor(actor);
-        timelineView.updateEventActorPositions();
+        addEvent(event);
+        history.record(new UndoHistory.CreateEdit(event));
     }
 
     /**
@@ -63,9 +148,9 @@ public class EditorController {
      */
     public void deleteSelectedEvent() {
         if (selectedActor != null) {
-            levelData.removeEvent(selectedActor.getEvent());
-            timelineView.removeEventActor(selectedActor);
-            selectedActor = null;
+            LevelEvent event = selectedActor.getEvent();
+            removeEvent(event);
+            history.record(new UndoHistory.DeleteEdit(event));
         }
     }
 
@@ -93,47 +178,482 @@ public class EditorController {
     }
 
     /**
-     * Updates event positions based on actor movements.
+     * Updates a single event from its dragged actor, keeping the level sorted
+     * without re-sorting every event.
      */
-    public void updateEventPositions() {
-        timelineView.updateEventsFromActors();
-        levelData.sortEvents();
+    public void updateEventPosition(EventActor actor) {
+        LevelEvent event = actor.getEvent();
+        float time = timelineView.getActorTime(actor);
+        float x = timelineView.getActorNormalizedX(actor);
+        if (time == event.time && x == event.x) {
+            return; // Clicked without dragging
+        }
+        float oldTime = event.time;
+        float oldX = event.x;
+        moveEvent(event, time, x);
+        history.record(new UndoHistory.MoveEdit(event, oldTime, oldX, time, x));
     }
 
     /**
-     * Saves the current level to a file.
+     * Changes the enemy type and formation of an event.
      */
-    public void saveLevel(String filename) {
-        FileHandle file = getLocalLevelFile(filename);
-        file.parent().mkdirs();
-        serializer.save(levelData, file);
-        System.out.println("Level saved to: " + file.path());
+    public void updateEventProperties(LevelEvent event, String enemyType, String formationId) {
+        String oldEnemyType = event.enemyType;
+        String oldFormationId = event.formationId;
+        setEventProperties(event, enemyType, formationId);
+        history.record(new UndoHistory.PropertiesEdit(event, oldEnemyType, oldFormationId, enemyType, formationId));
     }
 
     /**
-     * Loads a level from a file.
+     * Reverts the most recent edit.
+     * @return Description of the reverted edit, or null if there was nothing to undo
      */
-    public void loadLevel(String filename) {
-        FileHandle file = getLocalLevelFile(filename);
-        if (!file.exists()) {
+    public String undo() {
+        return history.undo();
+    }
+
+    /**
+     * Re-applies the most recently undone edit.
+     * @return Description of the re-applied edit, or null if there was nothing to redo
+     */
+    public String redo() {
+        return history.redo();
+    }
+
+    /**
+     * Gets the spawn counts over time of the current level. Recounts the level first if
+     * the formations were edited since, which is the only time the events are rescanned.
+     */
+    public DifficultyCurve getDifficultyCurve() {
+        if (difficultyCurve.isStale(formationData)) {
+            difficultyCurve.rebuild(levelData.events, formationData);
+        }
+        return difficultyCurve;
+    }
+
+    /**
+     * Gets the number of events that spawn on top of another one. Re-checks the whole
+     * level first if the formations were edited since the last check.
+     */
+    public int getConflictCount() {
+        if (conflictDetector.isStale(formationData)) {
+            checkAllConflicts();
+        }
+        return conflictCount;
+    }
+
+    /**
+     * Gets the simulation of the enemies spawned in preview mode.
+     */
+    public EnemySimulation getSimulation() {
+        return simulation;
+    }
+
+    public UndoHistory getUndoHistory() {
+        return history;
+    }
+
+    // The methods below apply an edit to the level, its journal and the timeline.
+    // They are shared by regular edits and undo/redo.
+
+    private void addEvent(LevelEvent event) {
+        levelData.addEvent(event);
+        journal.recordCreate(event);
+        getDifficultyCurve().add(event);
+        timelineView.addEventActor(new EventActor(event));
+        checkConflictsAround(event.time);
+    }
+
+    private void removeEvent(LevelEvent event) {
+        journal.recordDelete(levelData.indexOfEvent(event));
+        getDifficultyCurve().remove(event);
+        levelData.removeEvent(event);
+        EventActor actor = timelineView.getActorForEvent(event);
+        if (actor != null) {
+            if (actor == selectedActor) {
+                selectedActor = null;
+            }
+            if (actor.isConflicting()) {
+                actor.setConflicting(false);
+                conflictCount--;
+            }
+            timelineView.removeEventActor(actor);
+        }
+        checkConflictsAround(event.time);
+    }
+
+    private void moveEvent(LevelEvent event, float time, float x) {
+        journal.recordMove(levelData.indexOfEvent(event), time, x);
+        getDifficultyCurve().remove(event);
+        float oldTime = event.time;
+        levelData.moveEvent(event, time, x);
+        difficultyCurve.add(event);
+        checkConflictsAround(oldTime);
+        checkConflictsAround(time);
+    }
+
+    private void setEventProperties(LevelEvent event, String enemyType, String formationId) {
+        journal.recordProperties(levelData.indexOfEvent(event), enemyType, formationId);
+        // The formation decides how many enemies the event counts for
+        getDifficultyCurve().remove(event);
+        event.enemyType = enemyType;
+        event.formationId = formationId;
+        difficultyCurve.add(event);
+        checkConflictsAround(event.time);
+    }
+
+    /**
+     * Re-checks the events that can conflict with an event at the given time.
+     */
+    private void checkConflictsAround(float time) {
+        if (conflictDetector.isStale(formationData)) {
+            checkAllConflicts();
+            return;
+        }
+        float reach = conflictDetector.getReach(formationData);
+        checkConflicts(time - reach, time + reach);
+    }
+
+    private void checkAllConflicts() {
+        checkConflicts(Float.NEGATIVE_INFINITY, Float.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Updates the conflict highlight of the events in a time window.
+     */
+    private void checkConflicts(float from, float to) {
+        int last = levelData.indexAfterTime(to);
+        for (int i = levelData.indexOfTime(from); i < last; i++) {
+            EventActor actor = timelineView.getActorForEvent(levelData.events.get(i));
+            if (actor != null && actor.isConflicting()) {
+                actor.setConflicting(false);
+                conflictCount--;
+            }
+        }
+        conflictDetector.detect(levelData, formationData, from, to, conflicts);
+        for (int i = 0; i < conflicts.size; i++) {
+            EventActor actor = timelineView.getActorForEvent(conflicts.get(i));
+            if (actor != null && !actor.isConflicting()) {
+                actor.setConflicting(true);
+                conflictCount++;
+            }
+        }
+        conflicts.clear();
+    }
+
+    /**
+     * Saves the current level to a file in the background.
+     * The level is copied first, so edits made while saving do not reach the file.
+     * @param filename File name inside the levels directory
+     * @param callback Called on the render thread when the save has finished
+     * @return false if another save or load is still running
+     */
+    public boolean saveLevel(final String filename, final IoCallback callback) {
+        if (ioTask != null) {
+            return false;
+        }
+        final FileHandle file = getLocalLevelFile(filename);
+        EditorEvents.LevelSnapshot snapshotEvent = new EditorEvents.LevelSnapshot();
+        snapshotEvent.begin();
+        final LevelData snapshot = levelData.copy();
+        snapshotEvent.end();
+        if (snapshotEvent.shouldCommit()) {
+            snapshotEvent.eventCount = snapshot.events.size;
+            snapshotEvent.commit();
+        }
+        journal.beginSnapshot();
+        ioTask = ioExecutor.submit(new AsyncTask<Void>() {
+            @Override
+            public Void call() {
+                EditorEvents.LevelTask event = new EditorEvents.LevelTask();
+                event.begin();
+                try {
+                    file.parent().mkdirs();
+                    if (BinaryLevelSerializer.isBinaryLevel(filename)) {
+                        binarySerializer.save(snapshot, file);
+                    } else {
+                        serializer.save(snapshot, file);
+                    }
+                    System.out.println("Level saved to: " + file.path());
+                } catch (Exception e) {
+                    e.printStackTrace();
+                    journal.cancelSnapshot();
+                    finishIo(callback, "Save failed: " + e.getMessage(), null);
+                    commitTask(event, "save", filename, snapshot.events.size, false);
+                    return null;
+                }
+                try {
+                    // The saved file now holds everything up to the snapshot
+                    journal.rebase(EditJournal.Base.ofFile(filename, file, snapshot.levelLength));
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+                finishIo(callback, "Level saved: " + filename, null);
+                commitTask(event, "save", filename, snapshot.events.size, true);
+                return null;
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Compiles the level into a spawn table for the game and writes it in the background,
+     * next to where the level is saved (e.g. levels/name.spawns).
+     * @param filename Level file name inside the levels directory
+     * @param callback Called on the render thread when the export has finished
+     * @return false if another save or load is still running
+     */
+    public boolean exportSpawnTable(String filename, final IoCallback callback) {
+        if (ioTask != null) {
+            return false;
+        }
+        final String tableName = LevelCompiler.getSpawnTableName(filename);
+        final FileHandle file = getLocalLevelFile(tableName);
+        final LevelData levelSnapshot = levelData.copy();
+        final FormationData formationSnapshot = formationData.copy();
+        ioTask = ioExecutor.submit(new AsyncTask<Void>() {
+            @Override
+            public Void call() {
+                EditorEvents.LevelTask event = new EditorEvents.LevelTask();
+                event.begin();
+                String message;
+                try {
+                    file.parent().mkdirs();
+                    SpawnTable table = levelCompiler.compile(levelSnapshot, formationSnapshot);
+                    levelCompiler.save(table, file);
+                    System.out.println("Spawn table exported to: " + file.path());
+                    message = "Exported " + table.size() + " spawns to " + tableName;
+                    int unresolved = levelCompiler.getCompiler().getUnresolvedFormationIds().size;
+                    if (unresolved > 0) {
+                        message += " (" + unresolved + " unknown formations compiled as single spawns)";
+                    }
+                } catch (Exception e) {
+                    e.printStackTrace();
+                    finishIo(callback, "Export failed: " + e.getMessage(), null);
+                    commitTask(event, "export", tableName, levelSnapshot.events.size, false);
+                    return null;
+                }
+                finishIo(callback, message, null);
+                commitTask(event, "export", tableName, levelSnapshot.events.size, true);
+                return null;
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Loads a level from a file in the background.
+     * Parsing and actor creation happen off the render thread; the new level and its
+     * actors replace the current ones in a single frame once loading has finished.
+     * @param filename File name inside the levels directory
+     * @param callback Called on the render thread when the load has finished
+     * @return false if another save or load is still running
+     */
+    public boolean loadLevel(final String filename, final IoCallback callback) {
+        if (ioTask != null) {
+            return false;
+        }
+        FileHandle localFile = getLocalLevelFile(filename);
+        if (!localFile.exists()) {
             FileHandle internal = getInternalLevelFile(filename);
             if (internal.exists()) {
-                file = internal;
+                localFile = internal;
             }
         }
-        levelData = serializer.load(file);
-        
-        // Clear existing actors
-        timelineView.getEventActors().clear();
-        
-        // Create actors for loaded events
-        for (LevelEvent event : levelData.events) {
-            EventActor actor = new EventActor(event);
-            timelineView.addEventActor(actor);
+        final FileHandle file = localFile;
+        ioTask = ioExecutor.submit(new AsyncTask<Void>() {
+            @Override
+            public Void call() {
+                EditorEvents.LevelTask event = new EditorEvents.LevelTask();
+                event.begin();
+                try {
+                    final LevelData loaded = readLevel(filename, file);
+                    final EditJournal.Base base = file.exists()
+                        ? EditJournal.Base.ofFile(filename, file, loaded.levelLength)
+                        : EditJournal.Base.emptyLevel(loaded.levelLength);
+                    final Array<EventActor> actors = createActors(loaded);
+                    System.out.println("Level loaded from: " + file.path());
+
+                    finishIo(callback, "Level loaded: " + filename, new Runnable() {
+                        @Override
+                        public void run() {
+                            replaceLevel(loaded, actors, "load");
+                            startJournal(base);
+                        }
+                    });
+                    commitTask(event, "load", filename, loaded.events.size, true);
+                } catch (Exception e) {
+                    e.printStackTrace();
+                    finishIo(callback, "Load failed: " + filename, null);
+                    commitTask(event, "load", filename, 0, false);
+                }
+                return null;
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Checks whether a journal of unsaved edits from an earlier session exists.
+     */
+    public boolean hasRecoverableEdits() {
+        return journal.hasEdits();
+    }
+
+    /**
+     * Rebuilds the unsaved edits of an earlier session in the background by loading the
+     * journal's base level and replaying the journal on top of it.
+     * @param callback Called on the render thread when recovery has finished
+     * @return false if another save or load is still running
+     */
+    public boolean recoverEdits(final IoCallback callback) {
+        if (ioTask != null) {
+            return false;
         }
-        
-        timelineView.updateEventActorPositions();
-        System.out.println("Level loaded from: " + file.path());
+        ioTask = ioExecutor.submit(new AsyncTask<Void>() {
+            @Override
+            public Void call() {
+                EditorEvents.LevelTask event = new EditorEvents.LevelTask();
+                event.begin();
+                try {
+                    EditJournal.Base base = journal.readBase();
+                    final LevelData recovered;
+                    if (base.filename == null) {
+                        recovered = new LevelData(base.levelLength);
+                    } else {
+                        FileHandle file = getLocalLevelFile(base.filename);
+                        if (!file.exists()) {
+                            file = getInternalLevelFile(base.filename);
+                        }
+                        if (!file.exists() || !base.matches(file)) {
+                            finishIo(callback, "Unsaved edits not recovered: " + base.filename + " has changed", new Runnable() {
+                                @Override
+                                public void run() {
+                                    startJournal(EditJournal.Base.emptyLevel(levelData.levelLength));
+                                }
+                            });
+                            commitTask(event, "recover", base.filename, 0, false);
+                            return null;
+                        }
+                        recovered = readLevel(base.filename, file);
+                    }
+                    int edits = journal.replay(recovered);
+                    final Array<EventActor> actors = createActors(recovered);
+                    final String name = base.filename != null ? base.filename : "new level";
+
+                    finishIo(callback, "Recovered " + edits + " unsaved edits to " + name, new Runnable() {
+                        @Override
+                        public void run() {
+                            replaceLevel(recovered, actors, "recover");
+                            try {
+                                journal.resume();
+                            } catch (IOException e) {
+                                e.printStackTrace();
+                            }
+                        }
+                    });
+                    commitTask(event, "recover", base.filename, recovered.events.size, true);
+                } catch (Exception e) {
+                    e.printStackTrace();
+                    finishIo(callback, "Recovery failed: " + e.getMessage(), null);
+                    commitTask(event, "recover", null, 0, false);
+                }
+                return null;
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Throws away the unsaved edits of an earlier session.
+     */
+    public void discardRecoverableEdits() {
+        startJournal(EditJournal.Base.emptyLevel(levelData.levelLength));
+    }
+
+    private LevelData readLevel(String filename, FileHandle file) {
+        LevelData loaded;
+        if (BinaryLevelSerializer.isBinaryLevel(filename)) {
+            loaded = binarySerializer.load(file);
+        } else {
+            loaded = serializer.load(file);
+        }
+        // Preview and lookups rely on time order; files may list events in any order
+        loaded.sortEvents();
+        return loaded;
+    }
+
+    private static Array<EventActor> createActors(LevelData level) {
+        Array<EventActor> actors = new Array<>(true, Math.max(1, level.events.size), EventActor.class);
+        for (LevelEvent event : level.events) {
+            actors.add(new EventActor(event));
+        }
+        return actors;
+    }
+
+    private void replaceLevel(LevelData level, Array<EventActor> actors, String operation) {
+        EditorEvents.LevelApply event = new EditorEvents.LevelApply();
+        event.begin();
+        deselectAll();
+        levelData = level;
+        previewPlayer.setLevel(levelData);
+        difficultyCurve.rebuild(levelData.events, formationData);
+        timelineView.setEventActors(actors);
+        conflictCount = 0;
+        checkAllConflicts();
+        history.clear();
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.eventCount = level.events.size;
+            event.commit();
+        }
+    }
+
+    private static void commitTask(EditorEvents.LevelTask event, String operation, String filename,
+                                   int eventCount, boolean success) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.filename = filename;
+            event.eventCount = eventCount;
+            event.success = success;
+            event.commit();
+        }
+    }
+
+    private void startJournal(EditJournal.Base base) {
+        try {
+            journal.start(base);
+        } catch (IOException e) {
+            // Editing still works; only crash recovery is unavailable
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Checks whether a background save or load is running.
+     */
+    public boolean isIoBusy() {
+        return ioTask != null;
+    }
+
+    /**
+     * Hands the result of a background save or load back to the render thread.
+     */
+    private void finishIo(final IoCallback callback, final String message, final Runnable apply) {
+        Gdx.app.postRunnable(new Runnable() {
+            @Override
+            public void run() {
+                if (apply != null) {
+                    apply.run();
+                }
+                ioTask = null;
+                if (callback != null) {
+                    callback.finished(message);
+                }
+            }
+        });
     }
 
     /**
@@ -141,8 +661,13 @@ public class EditorController {
      */
     public void newLevel() {
         levelData = new LevelData(120f);
-        timelineView.getEventActors().clear();
+        previewPlayer.setLevel(levelData);
+        difficultyCurve.rebuild(levelData.events, formationData);
+        timelineView.clearEventActors();
+        conflictCount = 0;
         deselectAll();
+        history.clear();
+        startJournal(EditJournal.Base.emptyLevel(levelData.levelLength));
     }
 
     public LevelData getLevelData() {
@@ -157,10 +682,61 @@ public class EditorController {
      * Starts preview mode.
      */
     public void startPreview() {
+        startPreview(0f);
+    }
+
+    /**
+     * Starts preview mode at the given time.
+     * @param startTime Time in seconds to start playing from
+     */
+    public void startPreview(float startTime) {
+        clearTriggered();
         previewMode = true;
-        previewTime = 0f;
+        previewPlayer.setPaused(false);
+        simulation.setSpawnTable(previewCompiler.compile(levelData, formationData));
         deselectAll();
         timelineView.resetCameraToStart();
+        if (startTime > 0f) {
+            seekPreview(startTime);
+        }
+    }
+
+    /**
+     * Jumps the preview to the given time.
+     * Only the events between the old and new time change their triggered state.
+     * @param time Time in seconds (clamped to 0)
+     */
+    public void seekPreview(float time) {
+        if (!previewMode) {
+            return;
+        }
+        // Scrubbing seeks every frame; only create the event while a recording runs
+        EditorEvents.PreviewSeek event = null;
+        if (EditorEvents.isRecording()) {
+            event = new EditorEvents.PreviewSeek();
+            event.begin();
+        }
+        float fromTime = previewPlayer.getTime();
+        int fromCursor = previewPlayer.getCursor();
+        previewPlayer.seek(time);
+        int targetCursor = previewPlayer.getCursor();
+        if (targetCursor > fromCursor) {
+            setTriggered(fromCursor, targetCursor, true);
+        } else if (targetCursor < fromCursor) {
+            setTriggered(targetCursor, fromCursor, false);
+        }
+        simulation.seek(previewPlayer.getTime());
+        timelineView.scrollToTime(previewPlayer.getTime());
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.fromTime = fromTime;
+            event.toTime = previewPlayer.getTime();
+            event.changedEvents = Math.abs(targetCursor - fromCursor);
+            event.commit();
+        }
     }
     
     /**
@@ -168,10 +744,30 @@ public class EditorController {
      */
     public void stopPreview() {
         previewMode = false;
-        previewTime = 0f;
-        // Clear triggered state from all events
-        for (EventActor actor : timelineView.getEventActors()) {
-            actor.setTriggered(false);
+        previewPlayer.setPaused(false);
+        simulation.clear();
+        clearTriggered();
+    }
+
+    /**
+     * Clears the triggered state of every event before the preview cursor.
+     */
+    private void clearTriggered() {
+        setTriggered(0, previewPlayer.getCursor(), false);
+        previewPlayer.rewind();
+    }
+
+    /**
+     * Sets the triggered state of the events in [from, to) of the sorted event list.
+     */
+    private void setTriggered(int from, int to, boolean triggered) {
+        Array<LevelEvent> events = levelData.events;
+        int end = Math.min(to, events.size);
+        for (int i = from; i < end; i++) {
+            EventActor actor = timelineView.getActorForEvent(events.get(i));
+            if (actor != null) {
+                actor.setTriggered(triggered);
+            }
         }
     }
     
@@ -180,15 +776,25 @@ public class EditorController {
      */
     public void updatePreview(float delta) {
         if (previewMode) {
-            previewTime += delta;
-            timelineView.scrollToTime(previewTime);
-            
-            // Check and highlight events that should be triggered
-            // Note: For large levels, consider maintaining a separate list of untriggered events
-            for (EventActor actor : timelineView.getEventActors()) {
-                if (!actor.isTriggered() && actor.getEvent().time <= previewTime) {
-                    actor.setTriggered(true);
-                }
+            if (!EditorEvents.isRecording()) {
+                previewPlayer.update(delta);
+                simulation.advanceTo(previewPlayer.getTime());
+                timelineView.scrollToTime(previewPlayer.getTime());
+                return;
+            }
+            EditorEvents.PreviewUpdate event = new EditorEvents.PreviewUpdate();
+            event.begin();
+            int triggered = previewPlayer.update(delta);
+            int steps = simulation.advanceTo(previewPlayer.getTime());
+            event.end();
+            timelineView.scrollToTime(previewPlayer.getTime());
+            // Only frames that triggered something are worth recording
+            if (triggered > 0 && event.shouldCommit()) {
+                event.previewTime = previewPlayer.getTime();
+                event.triggeredEvents = triggered;
+                event.simulationSteps = steps;
+                event.liveEntities = simulation.getCount();
+                event.commit();
             }
         }
     }
@@ -198,13 +804,38 @@ public class EditorController {
     }
     
     public float getPreviewTime() {
-        return previewTime;
+        return previewPlayer.getTime();
+    }
+
+    /**
+     * Sets the preview playback speed multiplier.
+     * @param speed Speed multiplier (clamped to MIN_PREVIEW_SPEED..MAX_PREVIEW_SPEED)
+     */
+    public void setPreviewSpeed(float speed) {
+        previewPlayer.setTimeScale(Math.max(MIN_PREVIEW_SPEED, Math.min(MAX_PREVIEW_SPEED, speed)));
+    }
+
+    public float getPreviewSpeed() {
+        return previewPlayer.getTimeScale();
+    }
+
+    /**
+     * Pauses or resumes preview playback without leaving preview mode.
+     */
+    public void setPreviewPaused(boolean paused) {
+        previewPlayer.setPaused(paused);
+    }
+
+    public boolean isPreviewPaused() {
+        return previewPlayer.isPaused();
     }
     
     /**
      * Loads formations from the formations.json file.
      */
     private void loadFormations() {
+        EditorEvents.FormationReload event = new EditorEvents.FormationReload();
+        event.begin();
         FileHandle file = Gdx.files.local("formations.json");
         if (!file.exists()) {
             file = Gdx.files.internal("formations.json");
@@ -216,6 +847,11 @@ public class EditorController {
         if (timelineView != null) {
             timelineView.setFormationData(formationData);
         }
+        event.end();
+        if (event.shouldCommit()) {
+            event.formationCount = formationData.formations.size;
+            event.commit();
+        }
     }
     
     /**
@@ -238,4 +874,12 @@ public class EditorController {
     public FormationSerializer getFormationSerializer() {
         return formationSerializer;
     }
+
+    /**
+     * Stops the background I/O thread. A save that is still running is allowed to finish.
+     */
+    public void dispose() {
+        ioExecutor.dispose();
+        journal.close();
+    }
 }
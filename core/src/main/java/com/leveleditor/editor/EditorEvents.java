@@ -0,0 +1,214 @@
+package com.leveleditor.editor;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder events emitted by the editor, so recordings show which load,
+ * save, preview or render work coincides with a frame hitch.
+ *
+ * Usage follows the JFR pattern: create the event, begin() before the work, then
+ * end() and, if shouldCommit(), fill in the fields and commit(). While no recording
+ * is running these calls do nothing and the JIT removes the event allocation.
+ */
+final class EditorEvents {
+    private static final String CATEGORY = "Level Editor";
+
+    private EditorEvents() {
+    }
+
+    /**
+     * Checks whether Flight Recorder has been started in this JVM. Per-frame code uses this
+     * to skip creating events entirely, since the JIT does not remove the allocation until
+     * the code is fully optimized.
+     */
+    static boolean isRecording() {
+        return FlightRecorder.isInitialized();
+    }
+
+    @Name("com.leveleditor.LevelLoad")
+    @Label("Level Load")
+    @Description("Level file parsed by a level serializer")
+    @Category({CATEGORY, "I/O"})
+    @StackTrace(false)
+    static final class LevelLoad extends Event {
+        @Label("Path")
+        String path;
+        @Label("Format")
+        String format;
+        @Label("File Size")
+        @DataAmount
+        long bytes;
+        @Label("Events")
+        int eventCount;
+        @Label("Success")
+        boolean success;
+    }
+
+    @Name("com.leveleditor.LevelSave")
+    @Label("Level Save")
+    @Description("Level file written atomically by a level serializer")
+    @Category({CATEGORY, "I/O"})
+    @StackTrace(false)
+    static final class LevelSave extends Event {
+        @Label("Path")
+        String path;
+        @Label("Format")
+        String format;
+        @Label("File Size")
+        @DataAmount
+        long bytes;
+        @Label("Events")
+        int eventCount;
+        @Label("Success")
+        boolean success;
+    }
+
+    @Name("com.leveleditor.FormationLoad")
+    @Label("Formation Load")
+    @Category({CATEGORY, "I/O"})
+    @StackTrace(false)
+    static final class FormationLoad extends Event {
+        @Label("Path")
+        String path;
+        @Label("File Size")
+        @DataAmount
+        long bytes;
+        @Label("Formations")
+        int formationCount;
+        @Label("Success")
+        boolean success;
+    }
+
+    @Name("com.leveleditor.FormationSave")
+    @Label("Formation Save")
+    @Category({CATEGORY, "I/O"})
+    @StackTrace(false)
+    static final class FormationSave extends Event {
+        @Label("Path")
+        String path;
+        @Label("File Size")
+        @DataAmount
+        long bytes;
+        @Label("Formations")
+        int formationCount;
+        @Label("Success")
+        boolean success;
+    }
+
+    @Name("com.leveleditor.SpawnTableSave")
+    @Label("Spawn Table Save")
+    @Description("Compiled spawn table written for the game runtime")
+    @Category({CATEGORY, "I/O"})
+    @StackTrace(false)
+    static final class SpawnTableSave extends Event {
+        @Label("Path")
+        String path;
+        @Label("File Size")
+        @DataAmount
+        long bytes;
+        @Label("Spawns")
+        int spawnCount;
+        @Label("Success")
+        boolean success;
+    }
+
+    @Name("com.leveleditor.LevelTask")
+    @Label("Level Task")
+    @Description("Background load, save, export or recovery, from start to hand-off to the render thread")
+    @Category({CATEGORY, "Editor"})
+    @StackTrace(false)
+    static final class LevelTask extends Event {
+        @Label("Operation")
+        String operation;
+        @Label("File")
+        String filename;
+        @Label("Events")
+        int eventCount;
+        @Label("Success")
+        boolean success;
+    }
+
+    @Name("com.leveleditor.LevelSnapshot")
+    @Label("Level Snapshot")
+    @Description("Copy of the level taken on the render thread before a background save")
+    @Category({CATEGORY, "Editor"})
+    @StackTrace(false)
+    static final class LevelSnapshot extends Event {
+        @Label("Events")
+        int eventCount;
+    }
+
+    @Name("com.leveleditor.LevelApply")
+    @Label("Level Apply")
+    @Description("Loaded or recovered level swapped in on the render thread")
+    @Category({CATEGORY, "Editor"})
+    @StackTrace(false)
+    static final class LevelApply extends Event {
+        @Label("Operation")
+        String operation;
+        @Label("Events")
+        int eventCount;
+    }
+
+    @Name("com.leveleditor.FormationReload")
+    @Label("Formation Reload")
+    @Category({CATEGORY, "Editor"})
+    @StackTrace(false)
+    static final class FormationReload extends Event {
+        @Label("Formations")
+        int formationCount;
+    }
+
+    @Name("com.leveleditor.PreviewSeek")
+    @Label("Preview Seek")
+    @Description("Preview started or moved to another time")
+    @Category({CATEGORY, "Preview"})
+    @StackTrace(false)
+    static final class PreviewSeek extends Event {
+        @Label("From Time")
+        float fromTime;
+        @Label("To Time")
+        float toTime;
+        @Label("Changed Events")
+        @Description("Events whose triggered state changed")
+        int changedEvents;
+    }
+
+    @Name("com.leveleditor.PreviewUpdate")
+    @Label("Preview Update")
+    @Description("Preview frame that triggered events")
+    @Category({CATEGORY, "Preview"})
+    @StackTrace(false)
+    static final class PreviewUpdate extends Event {
+        @Label("Preview Time")
+        float previewTime;
+        @Label("Triggered Events")
+        int triggeredEvents;
+        @Label("Simulation Steps")
+        int simulationSteps;
+        @Label("Live Entities")
+        int liveEntities;
+    }
+
+    @Name("com.leveleditor.TimelineRender")
+    @Label("Timeline Render")
+    @Category({CATEGORY, "Rendering"})
+    @StackTrace(false)
+    static final class TimelineRender extends Event {
+        @Label("Zoom")
+        float zoom;
+        @Label("Density View")
+        boolean densityView;
+        @Label("Visible Events")
+        int visibleEvents;
+        @Label("Total Events")
+        int totalEvents;
+    }
+}
@@ -16,6 +16,7 @@ import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.graphics.Texture;
 import com.badlogic.gdx.graphics.g2d.BitmapFont;
 import com.badlogic.gdx.scenes.scene2d.ui.*;
+import com.badlogic.gdx.scenes.scene2d.utils.ChangeListener;
 import com.badlogic.gdx.scenes.scene2d.utils.ClickListener;
 import com.badlogic.gdx.utils.viewport.ScreenViewport;
 import com.badlogic.gdx.graphics.g2d.freetype.FreeTypeFontGenerator;
@@ -25,6 +26,11 @@ import com.leveleditor.model.EventType;
  * Main editor screen containing the UI and timeline view.
  */
 public class EditorScreen implements Screen {
+    // Preview playback options
+    private static final float[] PREVIEW_SPEEDS = {0.25f, 0.5f, 1f, 2f, 4f, 8f, 16f};
+    private static final String[] PREVIEW_SPEED_LABELS = {"0.25x", "0.5x", "1x", "2x", "4x", "8x", "16x"};
+    private static final float PREVIEW_SEEK_STEP = 5f; // Seconds skipped by the arrow keys
+
     private Stage stage;
     private TimelineView timelineView;
     private EditorController controller;
@@ -34,16 +40,59 @@ public class EditorScreen implements Screen {
     private EventActor draggingActor;
     private final Vector2 dragOffset = new Vector2();
 
+    // Reused temporaries, so per-frame input handling does not allocate
+    private final Vector3 worldPos = new Vector3();
+    private final Vector2 stageCoords = new Vector2();
+    private final com.badlogic.gdx.utils.StringBuilder statusText = new com.badlogic.gdx.utils.StringBuilder();
+
+    // Preview scrubbing state
+    private boolean scrubbing;
+    private int scrubLastY;
+
     // UI elements
     private Label statusLabel;
+    private Label conflictLabel;
+    private Cell<Table> statusBarCell;
+    private int shownConflictCount = -1;
     private TextField filenameField;
     private TextButton playButton;
+    private TextButton playHereButton;
+    private TextButton pauseButton;
     private TextButton stopButton;
+    private TextButton undoButton;
+    private TextButton redoButton;
+    private SelectBox<String> speedSelectBox;
+
+    // Frame profiler overlay, toggled with F3
+    private final FrameProfiler profiler;
+    private ProfilerOverlay profilerOverlay;
+
+    // Spawn density and difficulty of the whole level, toggled with F4
+    private DifficultyPanel difficultyPanel;
+
+    // Reports finished background saves and loads in the status label
+    private final EditorController.IoCallback ioCallback = new EditorController.IoCallback() {
+        @Override
+        public void finished(String message) {
+            updateStatus(message);
+        }
+    };
 
     public EditorScreen() {
+        this(UndoHistory.DEFAULT_MEMORY_BUDGET);
+    }
+
+    /**
+     * Creates the editor screen.
+     * @param undoMemoryBudget Estimated number of bytes the undo history may use
+     */
+    public EditorScreen(long undoMemoryBudget) {
         stage = new Stage(new ScreenViewport());
         timelineView = new TimelineView();
         controller = new EditorController(timelineView);
+        controller.getUndoHistory().setMemoryBudget(undoMemoryBudget);
+        profiler = new FrameProfiler();
+        timelineView.setProfiler(profiler);
         
         // Create a simple skin for UI
         skin = new Skin(Gdx.files.internal("uiskin.json"));
@@ -53,6 +102,12 @@ public class EditorScreen implements Screen {
         
         createUI();
 
+        BitmapFont overlayFont = skin.has("ui-font", BitmapFont.class)
+            ? skin.getFont("ui-font") : skin.getFont("default-font");
+        profilerOverlay = new ProfilerOverlay(profiler, timelineView, overlayFont);
+        difficultyPanel = new DifficultyPanel(overlayFont);
+        layoutTimeline();
+
         InputMultiplexer multiplexer = new InputMultiplexer();
         multiplexer.addProcessor(stage);
         multiplexer.addProcessor(new InputAdapter() {
@@ -63,6 +118,48 @@ public class EditorScreen implements Screen {
             }
         });
         Gdx.input.setInputProcessor(multiplexer);
+
+        if (controller.hasRecoverableEdits()) {
+            showRecoveryDialog();
+        }
+    }
+
+    public EditorController getController() {
+        return controller;
+    }
+
+    public TimelineView getTimelineView() {
+        return timelineView;
+    }
+
+    /**
+     * Gets the text currently shown in the status label.
+     */
+    public CharSequence getStatusText() {
+        return statusLabel.getText();
+    }
+
+    /**
+     * Offers to restore the unsaved edits of a session that ended without saving.
+     */
+    private void showRecoveryDialog() {
+        Dialog dialog = new Dialog("Unsaved Edits", skin) {
+            @Override
+            protected void result(Object object) {
+                if ((Boolean) object) {
+                    if (controller.recoverEdits(ioCallback)) {
+                        updateStatus("Recovering unsaved edits...");
+                    }
+                } else {
+                    controller.discardRecoverableEdits();
+                    updateStatus("Unsaved edits discarded");
+                }
+            }
+        };
+        dialog.text("The last session ended with unsaved edits. Recover them?");
+        dialog.button("Recover", true);
+        dialog.button("Discard", false);
+        dialog.show(stage);
     }
 
     private void applyHiDpiSkinFont() {
@@ -151,18 +248,41 @@ public class EditorScreen implements Screen {
         saveButton.addListener(new ClickListener() {
             @Override
             public void clicked(InputEvent event, float x, float y) {
-                controller.saveLevel(filenameField.getText());
-                updateStatus("Level saved: " + filenameField.getText());
+                String filename = filenameField.getText();
+                if (controller.saveLevel(filename, ioCallback)) {
+                    updateStatus("Saving " + filename + "...");
+                } else {
+                    updateStatus("Please wait for the current save or load to finish");
+                }
             }
         });
         toolbar.add(saveButton);
 
+        // Compile the level into the spawn table the game loads
+        TextButton exportButton = new TextButton("Export", skin);
+        exportButton.addListener(new ClickListener() {
+            @Override
+            public void clicked(InputEvent event, float x, float y) {
+                String filename = filenameField.getText();
+                if (controller.exportSpawnTable(filename, ioCallback)) {
+                    updateStatus("Exporting spawn table for " + filename + "...");
+                } else {
+                    updateStatus("Please wait for the current save or load to finish");
+                }
+            }
+        });
+        toolbar.add(exportButton);
+
         TextButton loadButton = new TextButton("Load", skin);
         loadButton.addListener(new ClickListener() {
             @Override
             public void clicked(InputEvent event, float x, float y) {
-                controller.loadLevel(filenameField.getText());
-                updateStatus("Level loaded: " + filenameField.getText());
+                String filename = filenameField.getText();
+                if (controller.loadLevel(filename, ioCallback)) {
+                    updateStatus("Loading " + filename + "...");
+                } else {
+                    updateStatus("Please wait for the current save or load to finish");
+                }
             }
         });
         toolbar.add(loadButton);
@@ -196,6 +316,30 @@ public class EditorScreen implements Screen {
             }
         });
         toolbar.add(playButton);
+
+        playHereButton = new TextButton("Play Here", skin);
+        playHereButton.getColor().set(0f, 0.8f, 0f, 1f); // Green
+        playHereButton.addListener(new ClickListener() {
+            @Override
+            public void clicked(InputEvent event, float x, float y) {
+                float startTime = timelineView.getCenterTime();
+                controller.startPreview(startTime);
+                timelineView.setPreviewMode(true);
+                updatePreviewButtons();
+                updateStatus("Preview mode started at ", startTime, "s");
+            }
+        });
+        toolbar.add(playHereButton);
+
+        pauseButton = new TextButton("Pause", skin);
+        pauseButton.addListener(new ClickListener() {
+            @Override
+            public void clicked(InputEvent event, float x, float y) {
+                togglePreviewPause();
+            }
+        });
+        pauseButton.setVisible(false);
+        toolbar.add(pauseButton);
         
         stopButton = new TextButton("Stop", skin);
         stopButton.getColor().set(0.8f, 0f, 0f, 1f); // Red
@@ -211,6 +355,18 @@ public class EditorScreen implements Screen {
         stopButton.setVisible(false);
         toolbar.add(stopButton);
 
+        speedSelectBox = new SelectBox<>(skin);
+        speedSelectBox.setItems(PREVIEW_SPEED_LABELS);
+        speedSelectBox.setSelected("1x");
+        speedSelectBox.addListener(new ChangeListener() {
+            @Override
+            public void changed(ChangeEvent event, Actor actor) {
+                controller.setPreviewSpeed(PREVIEW_SPEEDS[speedSelectBox.getSelectedIndex()]);
+                updateStatus("Preview speed " + speedSelectBox.getSelected());
+            }
+        });
+        toolbar.add(speedSelectBox);
+
         toolbar.add(new Label(" | ", skin));
 
         // Event creation buttons
@@ -280,16 +436,52 @@ public class EditorScreen implements Screen {
         });
         toolbar.add(deleteButton);
 
+        toolbar.add(new Label(" | ", skin));
+
+        undoButton = new TextButton("Undo", skin);
+        undoButton.addListener(new ClickListener() {
+            @Override
+            public void clicked(InputEvent event, float x, float y) {
+                if (!undoButton.isDisabled()) {
+                    undo();
+                }
+            }
+        });
+        toolbar.add(undoButton);
+
+        redoButton = new TextButton("Redo", skin);
+        redoButton.addListener(new ClickListener() {
+            @Override
+            public void clicked(InputEvent event, float x, float y) {
+                if (!redoButton.isDisabled()) {
+                    redo();
+                }
+            }
+        });
+        toolbar.add(redoButton);
+        updateUndoButtons();
+
         // Status label
         statusLabel = new Label("Level Editor Ready", skin);
         statusLabel.setColor(Color.LIGHT_GRAY);
         statusLabel.setTouchable(Touchable.disabled);
 
+        // Number of events spawning on top of another one (highlighted in red)
+        conflictLabel = new Label("", skin);
+        conflictLabel.setColor(Color.RED);
+        conflictLabel.setTouchable(Touchable.disabled);
+
+        Table statusBar = new Table();
+        statusBar.setTouchable(Touchable.disabled);
+        statusBar.add(statusLabel).left().expandX();
+        statusBar.add(conflictLabel).right();
+
         // Layout
         rootTable.add(toolbar).top().expandX().fillX().row();
-        // Spacer row so the status label stays at the bottom
+        // Spacer row so the status bar stays at the bottom
         rootTable.add().expand().fill().row();
-        rootTable.add(statusLabel).bottom().left().pad(10).row();
+        statusBarCell = rootTable.add(statusBar).bottom().expandX().fillX().pad(10);
+        rootTable.row();
     }
 
     /**
@@ -310,6 +502,32 @@ public class EditorScreen implements Screen {
     private void updateStatus(String message) {
         statusLabel.setText(message);
     }
+
+    /**
+     * Updates the status label with a time in seconds, formatted to one decimal place.
+     * Builds the text in a reused buffer, so it can be called every frame without allocating.
+     */
+    private void updateStatus(String prefix, float time, String suffix) {
+        int tenths = Math.round(time * 10f);
+        statusText.setLength(0);
+        statusText.append(prefix);
+        if (tenths < 0) {
+            statusText.append('-');
+            tenths = -tenths;
+        }
+        statusText.append(tenths / 10).append('.').append(tenths % 10).append(suffix);
+        // Label copies the text, and skips the layout if it did not change
+        statusLabel.setText(statusText);
+    }
+
+    /**
+     * Reports a selected event in the status label without allocating.
+     */
+    private void updateStatusSelected(EventType type) {
+        statusText.setLength(0);
+        statusText.append("Selected ").append(type.name()).append(" event");
+        statusLabel.setText(statusText);
+    }
     
     /**
      * Updates the visibility of preview buttons based on preview mode state.
@@ -317,8 +535,48 @@ public class EditorScreen implements Screen {
     private void updatePreviewButtons() {
         boolean isPreview = controller.isPreviewMode();
         playButton.setVisible(!isPreview);
+        playHereButton.setVisible(!isPreview);
+        pauseButton.setVisible(isPreview);
+        pauseButton.setText(controller.isPreviewPaused() ? "Resume" : "Pause");
         stopButton.setVisible(isPreview);
     }
+
+    /**
+     * Greys out Undo and Redo when there is nothing to undo or redo, or while previewing.
+     */
+    private void updateUndoButtons() {
+        boolean isPreview = controller.isPreviewMode();
+        UndoHistory history = controller.getUndoHistory();
+        undoButton.setDisabled(isPreview || !history.canUndo());
+        redoButton.setDisabled(isPreview || !history.canRedo());
+    }
+
+    private void undo() {
+        String edit = controller.undo();
+        updateStatus(edit != null ? "Undo " + edit : "Nothing to undo");
+    }
+
+    private void redo() {
+        String edit = controller.redo();
+        updateStatus(edit != null ? "Redo " + edit : "Nothing to redo");
+    }
+
+    /**
+     * Pauses or resumes preview playback.
+     */
+    private void togglePreviewPause() {
+        controller.setPreviewPaused(!controller.isPreviewPaused());
+        updatePreviewButtons();
+        updateStatus(controller.isPreviewPaused() ? "Preview paused" : "Preview resumed");
+    }
+
+    /**
+     * Jumps the preview to a time and reports it in the status label.
+     */
+    private void seekPreview(float time) {
+        controller.seekPreview(time);
+        updateStatus("Preview at ", controller.getPreviewTime(), "s");
+    }
     
     /**
      * Opens the formation manager dialog.
@@ -344,6 +602,7 @@ public class EditorScreen implements Screen {
                 "Edit Event Properties", 
                 skin, 
                 selectedActor.getEvent(), 
+                controller,
                 controller.getFormationData()
             );
             dialog.show(stage);
@@ -359,13 +618,43 @@ public class EditorScreen implements Screen {
 
     @Override
     public void render(float delta) {
+        update(delta);
+        draw(delta);
+    }
+
+    /**
+     * Runs the per-frame logic: preview playback and input handling.
+     * Separate from {@link #draw(float)} so tools such as the stress harness can
+     * measure it on its own.
+     */
+    public void update(float delta) {
+        // F3 toggles the profiler overlay, unless a text field has focus
+        if (Gdx.input.isKeyJustPressed(Input.Keys.F3) && stage.getKeyboardFocus() == null) {
+            profiler.setEnabled(!profiler.isEnabled());
+        }
+        if (Gdx.input.isKeyJustPressed(Input.Keys.F4) && stage.getKeyboardFocus() == null) {
+            difficultyPanel.setVisible(!difficultyPanel.isVisible());
+            layoutTimeline();
+        }
+        profiler.beginFrame();
+
         // Update preview mode
+        profiler.begin(FrameProfiler.UPDATE);
         controller.updatePreview(delta);
+        profiler.end(FrameProfiler.UPDATE);
         
         // Handle input
+        profiler.begin(FrameProfiler.INPUT);
         handleInput();
         timelineView.handleInput();
+        updateUndoButtons();
+        profiler.end(FrameProfiler.INPUT);
+    }
 
+    /**
+     * Draws the timeline, the UI and the profiler overlay.
+     */
+    public void draw(float delta) {
         // Clear screen
         Gdx.gl.glClearColor(0.1f, 0.1f, 0.1f, 1);
         Gdx.gl.glClear(GL20.GL_COLOR_BUFFER_BIT);
@@ -374,8 +663,32 @@ public class EditorScreen implements Screen {
         timelineView.render();
 
         // Render UI
+        profiler.begin(FrameProfiler.UI);
+        updateConflictLabel();
+        difficultyPanel.draw(controller.getDifficultyCurve(), controller.getLevelData().levelLength,
+            timelineView.getViewStartTime(), timelineView.getViewEndTime(),
+            controller.isPreviewMode() ? controller.getPreviewTime() : -1f);
         stage.act(delta);
         stage.draw();
+        profiler.end(FrameProfiler.UI);
+
+        profiler.endFrame();
+        profilerOverlay.draw();
+    }
+
+    /**
+     * Shows the number of conflicting events; only touches the label when it changed.
+     */
+    private void updateConflictLabel() {
+        int count = controller.getConflictCount();
+        if (count != shownConflictCount) {
+            shownConflictCount = count;
+            statusText.setLength(0);
+            if (count > 0) {
+                statusText.append(count).append(count == 1 ? " conflicting event" : " conflicting events");
+            }
+            conflictLabel.setText(statusText);
+        }
     }
 
     /**
@@ -384,6 +697,7 @@ public class EditorScreen implements Screen {
     private void handleInput() {
         // Disable edit mode input during preview
         if (controller.isPreviewMode()) {
+            handlePreviewInput();
             return;
         }
         
@@ -399,35 +713,35 @@ public class EditorScreen implements Screen {
             controller.deselectAll();
         }
 
+        // Ctrl+Z to undo, Ctrl+Y or Ctrl+Shift+Z to redo (not while typing or dragging)
+        if (stage.getKeyboardFocus() == null && draggingActor == null &&
+            (Gdx.input.isKeyPressed(Input.Keys.CONTROL_LEFT) || Gdx.input.isKeyPressed(Input.Keys.CONTROL_RIGHT))) {
+            boolean shift = Gdx.input.isKeyPressed(Input.Keys.SHIFT_LEFT) || Gdx.input.isKeyPressed(Input.Keys.SHIFT_RIGHT);
+            if (Gdx.input.isKeyJustPressed(Input.Keys.Z) && !shift) {
+                undo();
+            } else if (Gdx.input.isKeyJustPressed(Input.Keys.Y) ||
+                (Gdx.input.isKeyJustPressed(Input.Keys.Z) && shift)) {
+                redo();
+            }
+        }
+
         // Handle event selection with left click
         if (Gdx.input.isButtonJustPressed(Input.Buttons.LEFT)) {
             // Ignore clicks on UI elements
-            Vector2 stageCoords = stage.screenToStageCoordinates(new Vector2(Gdx.input.getX(), Gdx.input.getY()));
-            Actor hit = stage.hit(stageCoords.x, stageCoords.y, true);
-            if (hit != null) {
+            if (isPointerOverUi()) {
                 draggingActor = null;
                 return;
             }
 
-            Vector3 worldPos = timelineView.screenToWorld(Gdx.input.getX(), Gdx.input.getY());
+            timelineView.screenToWorld(Gdx.input.getX(), Gdx.input.getY(), worldPos);
             
-            EventActor clickedActor = null;
-            for (EventActor actor : timelineView.getEventActors()) {
-                float dx = worldPos.x - (actor.getX() + EventActor.getEventSize() / 2);
-                float dy = worldPos.y - (actor.getY() + EventActor.getEventSize() / 2);
-                float distSq = dx * dx + dy * dy;
-                
-                if (distSq <= EventActor.getEventSize() * EventActor.getEventSize()) {
-                    clickedActor = actor;
-                    break;
-                }
-            }
+            EventActor clickedActor = timelineView.pickEventActor(worldPos.x, worldPos.y);
             
             if (clickedActor != null) {
                 controller.selectEventActor(clickedActor);
                 draggingActor = clickedActor;
                 dragOffset.set(worldPos.x - clickedActor.getX(), worldPos.y - clickedActor.getY());
-                updateStatus("Selected " + clickedActor.getEvent().type + " event");
+                updateStatusSelected(clickedActor.getEvent().type);
             } else {
                 controller.deselectAll();
                 draggingActor = null;
@@ -436,7 +750,7 @@ public class EditorScreen implements Screen {
 
         // Drag selected event while holding left mouse button
         if (draggingActor != null && Gdx.input.isButtonPressed(Input.Buttons.LEFT)) {
-            Vector3 worldPos = timelineView.screenToWorld(Gdx.input.getX(), Gdx.input.getY());
+            timelineView.screenToWorld(Gdx.input.getX(), Gdx.input.getY(), worldPos);
 
             float newX = worldPos.x - dragOffset.x;
             float newY = worldPos.y - dragOffset.y;
@@ -445,23 +759,88 @@ public class EditorScreen implements Screen {
             newX = Math.max(0f, Math.min(maxX, newX));
             newY = Math.max(0f, newY);
 
-            draggingActor.setPosition(newX, newY);
+            timelineView.moveEventActor(draggingActor, newX, newY);
         }
 
         // Update event positions when mouse is released after dragging
         if (draggingActor != null && !Gdx.input.isButtonPressed(Input.Buttons.LEFT)) {
-            controller.updateEventPositions();
+            controller.updateEventPosition(draggingActor);
             draggingActor = null;
         }
     }
 
+    /**
+     * Handles playback controls and timeline scrubbing during preview.
+     */
+    private void handlePreviewInput() {
+        // Keyboard shortcuts, unless a text field has focus
+        if (stage.getKeyboardFocus() == null) {
+            if (Gdx.input.isKeyJustPressed(Input.Keys.SPACE)) {
+                togglePreviewPause();
+            }
+            if (Gdx.input.isKeyJustPressed(Input.Keys.LEFT)) {
+                seekPreview(controller.getPreviewTime() - PREVIEW_SEEK_STEP);
+            }
+            if (Gdx.input.isKeyJustPressed(Input.Keys.RIGHT)) {
+                seekPreview(controller.getPreviewTime() + PREVIEW_SEEK_STEP);
+            }
+            if (Gdx.input.isKeyJustPressed(Input.Keys.HOME)) {
+                seekPreview(0f);
+            }
+        }
+
+        // Scrub by dragging the timeline with the left mouse button
+        if (Gdx.input.isButtonJustPressed(Input.Buttons.LEFT)) {
+            scrubbing = !isPointerOverUi();
+            scrubLastY = Gdx.input.getY();
+        }
+        if (scrubbing) {
+            if (Gdx.input.isButtonPressed(Input.Buttons.LEFT)) {
+                int y = Gdx.input.getY();
+                if (y != scrubLastY) {
+                    controller.seekPreview(controller.getPreviewTime() + timelineView.screenDeltaToTime(y - scrubLastY));
+                    scrubLastY = y;
+                }
+            } else {
+                scrubbing = false;
+                updateStatus("Preview at ", controller.getPreviewTime(), "s");
+            }
+        }
+    }
+
+    /**
+     * Checks whether the mouse pointer is over a UI element or the difficulty panel.
+     */
+    private boolean isPointerOverUi() {
+        // Input is in logical pixels, the timeline width in back buffer pixels
+        float scale = Gdx.graphics.getBackBufferWidth() / (float) Gdx.graphics.getWidth();
+        if (Gdx.input.getX() * scale >= timelineView.getViewportWidth()) {
+            return true;
+        }
+        stage.screenToStageCoordinates(stageCoords.set(Gdx.input.getX(), Gdx.input.getY()));
+        Actor hit = stage.hit(stageCoords.x, stageCoords.y, true);
+        return hit != null;
+    }
+
     @Override
     public void resize(int width, int height) {
         // Use backbuffer size to avoid implicit DPI scaling blur.
         int backBufferWidth = Gdx.graphics.getBackBufferWidth();
         int backBufferHeight = Gdx.graphics.getBackBufferHeight();
         stage.getViewport().update(backBufferWidth, backBufferHeight, true);
-        timelineView.resize(backBufferWidth, backBufferHeight);
+        layoutTimeline();
+    }
+
+    /**
+     * Gives the timeline and the status bar the width of the window, minus the difficulty
+     * panel beside them.
+     */
+    private void layoutTimeline() {
+        int panelWidth = difficultyPanel.isVisible() ? (int) DifficultyPanel.WIDTH : 0;
+        // Keep the conflict count on the right of the status bar clear of the panel
+        statusBarCell.padRight(10 + panelWidth);
+        statusBarCell.getTable().invalidate();
+        timelineView.resize(Gdx.graphics.getBackBufferWidth() - panelWidth, Gdx.graphics.getBackBufferHeight());
     }
 
     @Override
@@ -478,7 +857,11 @@ public class EditorScreen implements Screen {
 
     @Override
     public void dispose() {
+        profiler.setEnabled(false);
+        profilerOverlay.dispose();
+        difficultyPanel.dispose();
         stage.dispose();
+        controller.dispose();
         timelineView.dispose();
         skin.dispose();
     }
@@ -1,102 +1,55 @@
 package com.leveleditor.editor;
 
 import com.badlogic.gdx.graphics.Color;
-import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
-import com.badlogic.gdx.scenes.scene2d.Actor;
-import com.badlogic.gdx.scenes.scene2d.InputEvent;
-import com.badlogic.gdx.scenes.scene2d.InputListener;
 import com.leveleditor.model.EventType;
 import com.leveleditor.model.LevelEvent;
 
 /**
  * Visual representation of a level event on the timeline.
- * This actor can be dragged and selected.
+ * Actors are never added to the Stage; EditorScreen picks and drags them through
+ * TimelineView. So this is a plain object holding only the event, its position and
+ * its flags, with colors shared per event type, rather than a scene2d Actor with
+ * its own Color and InputListener.
  */
-public class EventActor extends Actor {
+public class EventActor {
     private LevelEvent event;
+    private float x;
+    private float y;
     private boolean selected;
     private boolean triggered;
-    private Color color;
+    private boolean conflicting;
     private static final float SIZE = 20f;
 
-    // Drag state
-    private float dragStartX;
-    private float dragStartY;
-    private boolean dragging;
+    // Marker colors per event type
+    private static final Color ENEMY_COLOR = new Color(1f, 0.2f, 0.2f, 1f);       // Red
+    private static final Color FORMATION_COLOR = new Color(1f, 0.5f, 0f, 1f);     // Orange
+    private static final Color BOSS_COLOR = new Color(0.8f, 0f, 0.8f, 1f);        // Purple
+    private static final Color POWER_UP_COLOR = new Color(0f, 0.8f, 0f, 1f);      // Green
 
     public EventActor(LevelEvent event) {
         this.event = event;
         this.selected = false;
         this.triggered = false;
-        this.dragging = false;
-
-        // Set color based on event type
-        switch (event.type) {
-            case ENEMY:
-                color = new Color(1f, 0.2f, 0.2f, 1f); // Red
-                break;
-            case FORMATION:
-                color = new Color(1f, 0.5f, 0f, 1f); // Orange
-                break;
-            case BOSS:
-                color = new Color(0.8f, 0f, 0.8f, 1f); // Purple
-                break;
-            case POWER_UP:
-                color = new Color(0f, 0.8f, 0f, 1f); // Green
-                break;
-            default:
-                color = Color.WHITE;
-        }
-
-        setSize(SIZE, SIZE);
+    }
 
-        // Add input listener for dragging
-        addListener(new InputListener() {
-            @Override
-            public boolean touchDown(InputEvent event, float x, float y, int pointer, int button) {
-                dragStartX = x;
-                dragStartY = y;
-                dragging = true;
-                return true;
-            }
+    /**
+     * Gets the marker color of this event's type, packed for {@link EventMarkerRenderer}.
+     */
+    public float getPackedColor() {
+        return getTypeColor(event.type).toFloatBits();
+    }
 
-            @Override
-            public void touchDragged(InputEvent event, float x, float y, int pointer) {
-                if (dragging) {
-                    moveBy(x - dragStartX, y - dragStartY);
-                }
-            }
+    public float getX() {
+        return x;
+    }
 
-            @Override
-            public void touchUp(InputEvent event, float x, float y, int pointer, int button) {
-                dragging = false;
-            }
-        });
+    public float getY() {
+        return y;
     }
 
-    /**
-     * Renders the event as a colored circle.
-     */
-    public void draw(ShapeRenderer shapeRenderer, float parentAlpha) {
-        if (selected) {
-            // Draw selection outline
-            shapeRenderer.set(ShapeRenderer.ShapeType.Line);
-            shapeRenderer.setColor(color.r, color.g, color.b, color.a * parentAlpha);
-            shapeRenderer.circle(getX() + SIZE / 2, getY() + SIZE / 2, SIZE / 2 + 3);
-        }
-        
-        if (triggered) {
-            // Draw triggered state with pulsing yellow outline
-            shapeRenderer.set(ShapeRenderer.ShapeType.Line);
-            shapeRenderer.setColor(1f, 1f, 0f, 1f); // Yellow
-            shapeRenderer.circle(getX() + SIZE / 2, getY() + SIZE / 2, SIZE / 2 + 5);
-            shapeRenderer.circle(getX() + SIZE / 2, getY() + SIZE / 2, SIZE / 2 + 7);
-        }
-        
-        // Draw the event circle with its proper color
-        shapeRenderer.set(ShapeRenderer.ShapeType.Filled);
-        shapeRenderer.setColor(color.r, color.g, color.b, color.a * parentAlpha);
-        shapeRenderer.circle(getX() + SIZE / 2, getY() + SIZE / 2, SIZE / 2);
+    public void setPosition(float x, float y) {
+        this.x = x;
+        this.y = y;
     }
 
     public LevelEvent getEvent() {
@@ -119,6 +72,35 @@ public class EventActor extends Actor {
         this.triggered = triggered;
     }
 
+    /**
+     * Checks whether the event spawns on top of another one, see {@link ConflictDetector}.
+     */
+    public boolean isConflicting() {
+        return conflicting;
+    }
+
+    public void setConflicting(boolean conflicting) {
+        this.conflicting = conflicting;
+    }
+
+    /**
+     * Gets the marker color for an event type. The returned color is shared; do not modify it.
+     */
+    public static Color getTypeColor(EventType type) {
+        switch (type) {
+            case ENEMY:
+                return ENEMY_COLOR;
+            case FORMATION:
+                return FORMATION_COLOR;
+            case BOSS:
+                return BOSS_COLOR;
+            case POWER_UP:
+                return POWER_UP_COLOR;
+            default:
+                return Color.WHITE;
+        }
+    }
+
     public static float getEventSize() {
         return SIZE;
     }
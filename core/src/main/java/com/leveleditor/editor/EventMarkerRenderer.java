@@ -0,0 +1,171 @@
+package com.leveleditor.editor;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Disposable;
+import com.leveleditor.model.EventType;
+import com.leveleditor.player.EnemySimulation;
+
+/**
+ * Draws event markers as tinted sprites from a small generated atlas
+ * (filled disc, selection ring, triggered rings) through a single SpriteBatch.
+ * Conflicting events get the triggered rings in red outside preview playback.
+ * All markers share one texture, so they are submitted without state changes
+ * instead of tessellating circles and switching ShapeRenderer modes per actor.
+ */
+public class EventMarkerRenderer implements Disposable {
+    // Largest batch SpriteBatch supports; keeps flushes rare on dense levels
+    private static final int BATCH_SIZE = 8191;
+    // Pixels per world unit in the atlas, so markers stay smooth when zoomed in
+    private static final float ATLAS_SCALE = 2f;
+    // World size of each atlas cell; fits the outer triggered ring
+    private static final float CELL_EXTENT = 40f;
+
+    private static final float SELECTION_RING_OFFSET = 3f;
+    private static final float TRIGGERED_RING_OFFSET = 5f;
+    private static final float TRIGGERED_RING_SPACING = 2f;
+    private static final float RING_WIDTH = 1.5f;
+
+    private static final float TRIGGERED_COLOR = Color.YELLOW.toFloatBits();
+    private static final float CONFLICT_COLOR = Color.RED.toFloatBits();
+    private static final float[] ENTITY_COLORS = new float[EventType.values().length];
+
+    static {
+        for (EventType type : EventType.values()) {
+            ENTITY_COLORS[type.ordinal()] = EventActor.getTypeColor(type).toFloatBits();
+        }
+    }
+
+    private final SpriteBatch batch;
+    private final Texture atlas;
+    private final TextureRegion disc;
+    private final TextureRegion selectionRing;
+    private final TextureRegion triggeredRing;
+
+    public EventMarkerRenderer() {
+        batch = new SpriteBatch(BATCH_SIZE);
+
+        int cell = Math.round(CELL_EXTENT * ATLAS_SCALE);
+        float radius = EventActor.getEventSize() / 2;
+        Pixmap pixmap = new Pixmap(cell * 3, cell, Pixmap.Format.RGBA8888);
+        pixmap.setBlending(Pixmap.Blending.None);
+        pixmap.setColor(0f, 0f, 0f, 0f);
+        pixmap.fill();
+        drawRing(pixmap, cell / 2, 0f, radius);
+        drawRing(pixmap, cell + cell / 2, radius + SELECTION_RING_OFFSET - RING_WIDTH / 2,
+            radius + SELECTION_RING_OFFSET + RING_WIDTH / 2);
+        float triggeredInner = radius + TRIGGERED_RING_OFFSET;
+        drawRing(pixmap, cell * 2 + cell / 2, triggeredInner - RING_WIDTH / 2,
+            triggeredInner + RING_WIDTH / 2);
+        drawRing(pixmap, cell * 2 + cell / 2, triggeredInner + TRIGGERED_RING_SPACING - RING_WIDTH / 2,
+            triggeredInner + TRIGGERED_RING_SPACING + RING_WIDTH / 2);
+
+        atlas = new Texture(pixmap, true);
+        atlas.setFilter(Texture.TextureFilter.MipMapLinearLinear, Texture.TextureFilter.Linear);
+        pixmap.dispose();
+
+        disc = new TextureRegion(atlas, 0, 0, cell, cell);
+        selectionRing = new TextureRegion(atlas, cell, 0, cell, cell);
+        triggeredRing = new TextureRegion(atlas, cell * 2, 0, cell, cell);
+    }
+
+    /**
+     * Draws the markers of the given actors.
+     * @param projection Camera projection
+     * @param actors Actors to draw
+     */
+    public void draw(Matrix4 projection, Array<EventActor> actors) {
+        batch.setProjectionMatrix(projection);
+        batch.begin();
+        float halfSize = EventActor.getEventSize() / 2;
+        float halfExtent = CELL_EXTENT / 2;
+        for (int i = 0; i < actors.size; i++) {
+            EventActor actor = actors.get(i);
+            float x = actor.getX() + halfSize - halfExtent;
+            float y = actor.getY() + halfSize - halfExtent;
+            float color = actor.getPackedColor();
+
+            if (actor.isSelected()) {
+                batch.setPackedColor(color);
+                batch.draw(selectionRing, x, y, CELL_EXTENT, CELL_EXTENT);
+            }
+            if (actor.isTriggered()) {
+                batch.setPackedColor(TRIGGERED_COLOR);
+                batch.draw(triggeredRing, x, y, CELL_EXTENT, CELL_EXTENT);
+            } else if (actor.isConflicting()) {
+                batch.setPackedColor(CONFLICT_COLOR);
+                batch.draw(triggeredRing, x, y, CELL_EXTENT, CELL_EXTENT);
+            }
+            batch.setPackedColor(color);
+            batch.draw(disc, x, y, CELL_EXTENT, CELL_EXTENT);
+        }
+        batch.end();
+    }
+
+    /**
+     * Draws the entities of a preview simulation as small discs. The simulation's screen
+     * is mapped onto the world: x from 0 to screenWidth, and y from 1 at the spawn line
+     * down to 0 one screenHeight below it.
+     * @param projection Camera projection
+     * @param simulation Simulation to draw
+     * @param screenWidth World width of the simulated screen
+     * @param spawnLineY World Y of the spawn line
+     * @param screenHeight World height of the simulated screen
+     * @param size World size of each entity
+     * @param top World Y above which entities are not drawn
+     */
+    public void drawEntities(Matrix4 projection, EnemySimulation simulation, float screenWidth,
+                             float spawnLineY, float screenHeight, float size, float top) {
+        batch.setProjectionMatrix(projection);
+        batch.begin();
+        float extent = CELL_EXTENT * size / EventActor.getEventSize();
+        float halfExtent = extent / 2;
+        for (int i = 0; i < simulation.getCount(); i++) {
+            float y = spawnLineY - (1f - simulation.getY(i)) * screenHeight;
+            if (y - halfExtent > top) {
+                continue; // Formation members still above the view
+            }
+            batch.setPackedColor(ENTITY_COLORS[simulation.getType(i).ordinal()]);
+            batch.draw(disc, simulation.getX(i) * screenWidth - halfExtent, y - halfExtent, extent, extent);
+        }
+        batch.end();
+    }
+
+    /**
+     * Fills the pixels between two radii (world units) around a cell center with opaque white.
+     */
+    private static void drawRing(Pixmap pixmap, int centerX, float innerRadius, float outerRadius) {
+        int cell = pixmap.getHeight();
+        float centerY = cell / 2f;
+        float inner = innerRadius * ATLAS_SCALE;
+        float outer = outerRadius * ATLAS_SCALE;
+        for (int py = 0; py < cell; py++) {
+            for (int px = centerX - cell / 2; px < centerX + cell / 2; px++) {
+                // Approximate coverage with the distance of the pixel center to the ring edges
+                float dx = px + 0.5f - centerX;
+                float dy = py + 0.5f - centerY;
+                float distance = (float) Math.sqrt(dx * dx + dy * dy);
+                float coverage = Math.min(Math.min(distance - inner + 0.5f, outer - distance + 0.5f), 1f);
+                if (innerRadius <= 0f) {
+                    coverage = Math.min(outer - distance + 0.5f, 1f);
+                }
+                if (coverage > 0f) {
+                    int alpha = Math.round(coverage * 255f);
+                    int existing = pixmap.getPixel(px, py) & 0xFF;
+                    pixmap.drawPixel(px, py, 0xFFFFFF00 | Math.max(alpha, existing));
+                }
+            }
+        }
+    }
+
+    @Override
+    public void dispose() {
+        batch.dispose();
+        atlas.dispose();
+    }
+}
@@ -0,0 +1,110 @@
+package com.leveleditor.editor;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.LongMap;
+
+/**
+ * Uniform grid over world coordinates used to pick event actors under the cursor.
+ * Cells are as large as the pick radius, so a pick only inspects the 3x3 cells
+ * around the cursor regardless of how many events the level holds.
+ */
+public class EventPickGrid {
+    private final float cellSize;
+    private final LongMap<Array<EventActor>> cells;
+    // Emptied cells kept for reuse, so dragging an actor across cells does not allocate
+    private final Array<Array<EventActor>> freeCells;
+
+    /**
+     * Creates an empty grid.
+     * @param cellSize Cell edge length in world units (should be at least the pick radius)
+     */
+    public EventPickGrid(float cellSize) {
+        this.cellSize = cellSize;
+        this.cells = new LongMap<>();
+        this.freeCells = new Array<>(false, 16);
+    }
+
+    /**
+     * Adds an actor to the cell containing its current center.
+     */
+    public void add(EventActor actor) {
+        long key = keyOf(cellOf(centerX(actor)), cellOf(centerY(actor)));
+        Array<EventActor> cell = cells.get(key);
+        if (cell == null) {
+            cell = freeCells.size > 0 ? freeCells.pop() : new Array<EventActor>(false, 4);
+            cells.put(key, cell);
+        }
+        cell.add(actor);
+    }
+
+    /**
+     * Removes an actor from the grid. Must be called before the actor is moved.
+     */
+    public void remove(EventActor actor) {
+        long key = keyOf(cellOf(centerX(actor)), cellOf(centerY(actor)));
+        Array<EventActor> cell = cells.get(key);
+        if (cell != null && cell.removeValue(actor, true) && cell.size == 0) {
+            cells.remove(key);
+            freeCells.add(cell);
+        }
+    }
+
+    /**
+     * Removes all actors from the grid.
+     */
+    public void clear() {
+        cells.clear();
+    }
+
+    /**
+     * Finds the actor whose center is nearest to the given point.
+     * @param x World X coordinate
+     * @param y World Y coordinate
+     * @param radius Maximum distance from the actor center
+     * @return The nearest actor within the radius, or null if none
+     */
+    public EventActor findNearest(float x, float y, float radius) {
+        int minCellX = cellOf(x - radius);
+        int maxCellX = cellOf(x + radius);
+        int minCellY = cellOf(y - radius);
+        int maxCellY = cellOf(y + radius);
+
+        EventActor nearest = null;
+        float nearestDistSq = radius * radius;
+        for (int cellY = minCellY; cellY <= maxCellY; cellY++) {
+            for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+                Array<EventActor> cell = cells.get(keyOf(cellX, cellY));
+                if (cell == null) {
+                    continue;
+                }
+                for (int i = 0; i < cell.size; i++) {
+                    EventActor actor = cell.get(i);
+                    float dx = x - centerX(actor);
+                    float dy = y - centerY(actor);
+                    float distSq = dx * dx + dy * dy;
+                    if (distSq <= nearestDistSq) {
+                        nearest = actor;
+                        nearestDistSq = distSq;
+                    }
+                }
+            }
+        }
+        return nearest;
+    }
+
+    private int cellOf(float coordinate) {
+        return (int) Math.floor(coordinate / cellSize);
+    }
+
+    private static long keyOf(int cellX, int cellY) {
+        return ((long) cellX << 32) | (cellY & 0xFFFFFFFFL);
+    }
+
+    private static float centerX(EventActor actor) {
+        return actor.getX() + EventActor.getEventSize() / 2;
+    }
+
+    private static float centerY(EventActor actor) {
+        return actor.getY() + EventActor.getEventSize() / 2;
+    }
+}
@@ -14,14 +14,16 @@ import com.badlogic.gdx.utils.Array;
  */
 public class EventPropertiesDialog extends Dialog {
     private LevelEvent event;
+    private EditorController controller;
     private FormationData formationData;
     private TextField enemyTypeField;
     private SelectBox<String> formationSelectBox;
     private Label formationLabel;
 
-    public EventPropertiesDialog(String title, Skin skin, LevelEvent event, FormationData formationData) {
+    public EventPropertiesDialog(String title, Skin skin, LevelEvent event, EditorController controller, FormationData formationData) {
         super(title, skin);
         this.event = event;
+        this.controller = controller;
         this.formationData = formationData;
         
         createUI();
@@ -87,11 +89,11 @@ public class EventPropertiesDialog extends Dialog {
     protected void result(Object object) {
         if ((Boolean) object) {
             // Save button clicked
-            event.enemyType = enemyTypeField.getText().trim();
-            
+            String formationId = event.formationId;
             if (event.type == EventType.FORMATION && formationSelectBox != null) {
-                event.formationId = formationSelectBox.getSelected();
+                formationId = formationSelectBox.getSelected();
             }
+            controller.updateEventProperties(event, enemyTypeField.getText().trim(), formationId);
         }
     }
 }
@@ -10,6 +10,8 @@ import com.badlogic.gdx.utils.Array;
 import com.leveleditor.model.Formation;
 import com.leveleditor.model.FormationData;
 
+import java.io.IOException;
+
 /**
  * Dialog for managing formations (Create, Edit, Delete).
  */
@@ -205,14 +207,11 @@ public class FormationManagerDialog extends Dialog {
             Formation formation = new Formation(id, speed);
             formation.relativePositions = positions;
             
-            if (currentFormation == null || !formationData.formations.contains(formation, true)) {
+            if (currentFormation == null || !formationData.formations.contains(currentFormation, true)) {
                 formationData.addFormation(formation);
             } else {
                 // Update in place
-                int index = formationData.formations.indexOf(currentFormation, true);
-                if (index >= 0) {
-                    formationData.formations.set(index, formation);
-                }
+                formationData.replaceFormation(currentFormation, formation);
             }
 
             currentFormation = formation;
@@ -242,7 +241,11 @@ public class FormationManagerDialog extends Dialog {
                 // Save to file
                 FileHandle file = Gdx.files.local("formations.json");
                 file.parent().mkdirs();
-                serializer.save(formationData, file);
+                try {
+                    serializer.save(formationData, file);
+                } catch (IOException e) {
+                    showError("Error saving formations: " + e.getMessage());
+                }
 
                 refreshFormationList();
                 clearEditor();
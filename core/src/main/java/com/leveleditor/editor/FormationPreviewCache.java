@@ -0,0 +1,165 @@
+package com.leveleditor.editor;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.Mesh;
+import com.badlogic.gdx.graphics.VertexAttribute;
+import com.badlogic.gdx.graphics.VertexAttributes;
+import com.badlogic.gdx.graphics.glutils.ShaderProgram;
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Disposable;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+import com.badlogic.gdx.utils.IdentityMap;
+import com.leveleditor.model.Formation;
+import com.leveleditor.model.FormationData;
+
+/**
+ * Caches the outline geometry of each formation's timeline preview. The circles are
+ * tessellated once per formation; drawing a preview copies the cached vertices, moved
+ * to the event's position, into a shared vertex buffer that is flushed in a single
+ * draw call by {@link #end}, or earlier when the buffer fills up. Cached outlines are
+ * rebuilt after the formation data changes.
+ */
+public class FormationPreviewCache implements Disposable {
+    private static final int CIRCLE_SEGMENTS = 12;
+    private static final int MAX_VERTICES = 16384; // Line ends per flush
+
+    private static final String VERTEX_SHADER =
+        "attribute vec4 " + ShaderProgram.POSITION_ATTRIBUTE + ";\n"
+        + "uniform mat4 u_projTrans;\n"
+        + "void main() {\n"
+        + "    gl_Position = u_projTrans * " + ShaderProgram.POSITION_ATTRIBUTE + ";\n"
+        + "}\n";
+    private static final String FRAGMENT_SHADER =
+        "#ifdef GL_ES\n"
+        + "precision mediump float;\n"
+        + "#endif\n"
+        + "uniform vec4 u_color;\n"
+        + "void main() {\n"
+        + "    gl_FragColor = u_color;\n"
+        + "}\n";
+
+    private final float scale;
+    private final float radius;
+    private final ShaderProgram shader;
+    private final Mesh mesh;
+    private final float[] vertices;
+    private int vertexCount;
+
+    // Outline vertices of each formation around its center, as x, y pairs
+    private final IdentityMap<Formation, float[]> outlines;
+
+    // Formation data the cached outlines were built from
+    private FormationData formationData;
+    private int formationVersion;
+
+    /**
+     * Creates an empty cache.
+     * @param scale World units per normalized formation unit
+     * @param radius Radius of each ship outline in world units
+     */
+    public FormationPreviewCache(float scale, float radius) {
+        this.scale = scale;
+        this.radius = radius;
+        this.shader = new ShaderProgram(VERTEX_SHADER, FRAGMENT_SHADER);
+        if (!shader.isCompiled()) {
+            throw new GdxRuntimeException("Error compiling formation preview shader: " + shader.getLog());
+        }
+        this.mesh = new Mesh(false, MAX_VERTICES, 0,
+            new VertexAttribute(VertexAttributes.Usage.Position, 2, ShaderProgram.POSITION_ATTRIBUTE));
+        this.vertices = new float[MAX_VERTICES * 2];
+        this.outlines = new IdentityMap<>();
+        this.formationData = null;
+        this.formationVersion = -1;
+    }
+
+    /**
+     * Prepares for drawing previews. Discards cached outlines if the formations changed.
+     * @param projectionMatrix Camera projection
+     * @param color Outline color
+     * @param data Formation data the previews come from
+     */
+    public void begin(Matrix4 projectionMatrix, Color color, FormationData data) {
+        if (data != formationData || data.getVersion() != formationVersion) {
+            outlines.clear();
+            formationData = data;
+            formationVersion = data.getVersion();
+        }
+        vertexCount = 0;
+        shader.bind();
+        shader.setUniformMatrix("u_projTrans", projectionMatrix);
+        shader.setUniformf("u_color", color);
+    }
+
+    /**
+     * Queues the preview of a formation centered at the given world position.
+     */
+    public void draw(Formation formation, float x, float y) {
+        float[] outline = outlines.get(formation);
+        if (outline == null) {
+            if (formation.relativePositions.size == 0) {
+                return;
+            }
+            outline = buildOutline(formation);
+            outlines.put(formation, outline);
+        }
+        // Both arrays hold whole lines, so a full buffer never splits one
+        int offset = 0;
+        while (offset < outline.length) {
+            if (vertexCount == MAX_VERTICES) {
+                flush();
+            }
+            int v = vertexCount * 2;
+            int end = Math.min(outline.length, offset + vertices.length - v);
+            for (int i = offset; i < end; i += 2) {
+                vertices[v++] = outline[i] + x;
+                vertices[v++] = outline[i + 1] + y;
+            }
+            vertexCount = v / 2;
+            offset = end;
+        }
+    }
+
+    /**
+     * Draws the queued previews.
+     */
+    public void end() {
+        flush();
+    }
+
+    private void flush() {
+        if (vertexCount == 0) {
+            return;
+        }
+        mesh.setVertices(vertices, 0, vertexCount * 2);
+        mesh.render(shader, GL20.GL_LINES, 0, vertexCount);
+        vertexCount = 0;
+    }
+
+    private float[] buildOutline(Formation formation) {
+        float[] outline = new float[formation.relativePositions.size * CIRCLE_SEGMENTS * 4];
+        int v = 0;
+        float step = MathUtils.PI2 / CIRCLE_SEGMENTS;
+        for (Vector2 relPos : formation.relativePositions) {
+            float centerX = relPos.x * scale;
+            float centerY = relPos.y * scale;
+            for (int i = 0; i < CIRCLE_SEGMENTS; i++) {
+                float a0 = i * step;
+                float a1 = (i + 1) * step;
+                outline[v++] = centerX + radius * MathUtils.cos(a0);
+                outline[v++] = centerY + radius * MathUtils.sin(a0);
+                outline[v++] = centerX + radius * MathUtils.cos(a1);
+                outline[v++] = centerY + radius * MathUtils.sin(a1);
+            }
+        }
+        return outline;
+    }
+
+    @Override
+    public void dispose() {
+        mesh.dispose();
+        shader.dispose();
+    }
+}
@@ -5,6 +5,11 @@ import com.badlogic.gdx.utils.Json;
 import com.badlogic.gdx.utils.JsonWriter;
 import com.leveleditor.model.FormationData;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
 /**
  * Handles serialization and deserialization of formation data to/from JSON files.
  */
@@ -17,16 +22,36 @@ public class FormationSerializer {
     }
 
     /**
-     * Saves formation data to a JSON file.
+     * Saves formation data to a JSON file. The file is replaced atomically.
      * @param formationData The formation data to save
      * @param file The file to save to
+     * @throws IOException if the file could not be written; the previous file is kept
      */
-    public void save(FormationData formationData, FileHandle file) {
+    public void save(FormationData formationData, FileHandle file) throws IOException {
+        EditorEvents.FormationSave event = new EditorEvents.FormationSave();
+        event.begin();
+        final byte[] bytes = json.prettyPrint(formationData).getBytes(StandardCharsets.UTF_8);
+        boolean success = false;
         try {
-            String jsonString = json.prettyPrint(formationData);
-            file.writeString(jsonString, false);
-        } catch (Exception e) {
-            e.printStackTrace();
+            AtomicFileWriter.write(file.file(), new AtomicFileWriter.Content() {
+                @Override
+                public void write(FileChannel channel) throws IOException {
+                    ByteBuffer buffer = ByteBuffer.wrap(bytes);
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                }
+            });
+            success = true;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.path = file.path();
+                event.bytes = bytes.length;
+                event.formationCount = formationData.formations.size;
+                event.success = success;
+                event.commit();
+            }
         }
     }
 
@@ -36,14 +61,25 @@ public class FormationSerializer {
      * @return The loaded formation data, or a new empty FormationData if loading fails
      */
     public FormationData load(FileHandle file) {
+        EditorEvents.FormationLoad event = new EditorEvents.FormationLoad();
+        event.begin();
+        FormationData formationData = null;
         try {
             if (file.exists()) {
                 String jsonString = file.readString();
-                return json.fromJson(FormationData.class, jsonString);
+                formationData = json.fromJson(FormationData.class, jsonString);
             }
         } catch (Exception e) {
             e.printStackTrace();
         }
-        return new FormationData();
+        event.end();
+        if (event.shouldCommit()) {
+            event.path = file.path();
+            event.bytes = file.exists() ? file.length() : 0;
+            event.formationCount = formationData != null ? formationData.formations.size : 0;
+            event.success = formationData != null;
+            event.commit();
+        }
+        return formationData != null ? formationData : new FormationData();
     }
 }
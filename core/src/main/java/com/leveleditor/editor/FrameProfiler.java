@@ -0,0 +1,217 @@
+package com.leveleditor.editor;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.profiling.GLProfiler;
+import com.badlogic.gdx.utils.TimeUtils;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Collects rolling per-phase timings, GL counters and memory statistics for the
+ * profiler overlay. Phases are timed with begin/end pairs around the work of a frame;
+ * while the profiler is disabled those calls return immediately and GL calls are not
+ * intercepted.
+ */
+public class FrameProfiler {
+    public static final int UPDATE = 0;
+    public static final int INPUT = 1;
+    public static final int GRID = 2;
+    public static final int MARKERS = 3;
+    public static final int FORMATIONS = 4;
+    public static final int UI = 5;
+    public static final int PHASE_COUNT = 6;
+    public static final String[] PHASE_NAMES = {"update", "input", "grid", "markers", "formations", "ui"};
+
+    public static final int HISTORY = 180; // Frames kept for the rolling graph and statistics
+
+    private boolean enabled;
+    private GLProfiler glProfiler;
+
+    // Ring buffers indexed by frame; current is the frame being recorded
+    private final long[][] phaseNanos = new long[PHASE_COUNT][HISTORY];
+    private final long[] frameNanos = new long[HISTORY];
+    private final int[] drawCalls = new int[HISTORY];
+    private final int[] vertexCounts = new int[HISTORY];
+    private final int[] textureBindings = new int[HISTORY];
+    private final int[] shaderSwitches = new int[HISTORY];
+    private int current;
+    private int recorded;
+
+    private final long[] phaseStart = new long[PHASE_COUNT];
+    private long frameStart;
+
+    /**
+     * Turns profiling on or off. Enabling starts intercepting GL calls to count them.
+     */
+    public void setEnabled(boolean enabled) {
+        if (this.enabled == enabled) {
+            return;
+        }
+        this.enabled = enabled;
+        if (glProfiler == null) {
+            glProfiler = new GLProfiler(Gdx.graphics);
+        }
+        if (enabled) {
+            recorded = 0;
+            glProfiler.enable();
+            glProfiler.reset();
+        } else {
+            glProfiler.disable();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Starts recording a frame. Resets the GL counters, so GL work done between
+     * endFrame() and beginFrame() (e.g. drawing the overlay itself) is not counted.
+     */
+    public void beginFrame() {
+        if (!enabled) {
+            return;
+        }
+        current = (current + 1) % HISTORY;
+        for (int phase = 0; phase < PHASE_COUNT; phase++) {
+            phaseNanos[phase][current] = 0;
+        }
+        glProfiler.reset();
+        frameStart = TimeUtils.nanoTime();
+    }
+
+    /**
+     * Finishes recording a frame.
+     */
+    public void endFrame() {
+        if (!enabled) {
+            return;
+        }
+        frameNanos[current] = TimeUtils.nanoTime() - frameStart;
+        drawCalls[current] = glProfiler.getDrawCalls();
+        vertexCounts[current] = (int) glProfiler.getVertexCount().total;
+        textureBindings[current] = glProfiler.getTextureBindings();
+        shaderSwitches[current] = glProfiler.getShaderSwitches();
+        recorded = Math.min(recorded + 1, HISTORY);
+    }
+
+    /**
+     * Starts timing a phase of the current frame.
+     */
+    public void begin(int phase) {
+        if (enabled) {
+            phaseStart[phase] = TimeUtils.nanoTime();
+        }
+    }
+
+    /**
+     * Stops timing a phase. A phase may be timed several times per frame; the times add up.
+     */
+    public void end(int phase) {
+        if (enabled) {
+            phaseNanos[phase][current] += TimeUtils.nanoTime() - phaseStart[phase];
+        }
+    }
+
+    /**
+     * Gets the number of frames with data, up to HISTORY.
+     */
+    public int getRecordedFrames() {
+        return recorded;
+    }
+
+    /**
+     * Converts an age (0 = most recent frame) to a ring buffer index.
+     */
+    private int indexOf(int age) {
+        return (current - age + HISTORY) % HISTORY;
+    }
+
+    public long getPhaseNanos(int phase, int age) {
+        return phaseNanos[phase][indexOf(age)];
+    }
+
+    public long getFrameNanos(int age) {
+        return frameNanos[indexOf(age)];
+    }
+
+    /**
+     * Gets the average time of a phase over the recorded frames, in milliseconds.
+     */
+    public float getAveragePhaseMillis(int phase) {
+        return average(phaseNanos[phase]) / 1e6f;
+    }
+
+    /**
+     * Gets the longest time of a phase over the recorded frames, in milliseconds.
+     */
+    public float getMaxPhaseMillis(int phase) {
+        return max(phaseNanos[phase]) / 1e6f;
+    }
+
+    public float getAverageFrameMillis() {
+        return average(frameNanos) / 1e6f;
+    }
+
+    public float getMaxFrameMillis() {
+        return max(frameNanos) / 1e6f;
+    }
+
+    public int getDrawCalls() {
+        return drawCalls[current];
+    }
+
+    public int getVertexCount() {
+        return vertexCounts[current];
+    }
+
+    public int getTextureBindings() {
+        return textureBindings[current];
+    }
+
+    public int getShaderSwitches() {
+        return shaderSwitches[current];
+    }
+
+    /**
+     * Gets the total number of garbage collections since the JVM started.
+     */
+    public long getGcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+        }
+        return count;
+    }
+
+    /**
+     * Gets the total time spent in garbage collection since the JVM started, in milliseconds.
+     */
+    public long getGcMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            millis += Math.max(0, gc.getCollectionTime());
+        }
+        return millis;
+    }
+
+    private long average(long[] values) {
+        if (recorded == 0) {
+            return 0;
+        }
+        long sum = 0;
+        for (int age = 0; age < recorded; age++) {
+            sum += values[indexOf(age)];
+        }
+        return sum / recorded;
+    }
+
+    private long max(long[] values) {
+        long max = 0;
+        for (int age = 0; age < recorded; age++) {
+            max = Math.max(max, values[indexOf(age)]);
+        }
+        return max;
+    }
+}
@@ -0,0 +1,384 @@
+package com.leveleditor.editor;
+
+import com.badlogic.gdx.utils.SerializationException;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Minimal pull parser for JSON that reads from a {@link Reader} through a fixed-size
+ * buffer. Unlike {@link com.badlogic.gdx.utils.JsonReader} it never holds the whole
+ * document or a DOM in memory; callers walk the structure with
+ * beginObject/nextName/next* calls and skip what they don't need.
+ *
+ * Like JsonReader it is lenient, so hand-edited files and libGDX's minimal format load
+ * as well: names and string values may be unquoted, a line break can stand in for
+ * the comma between members or elements, trailing commas are allowed, and line and
+ * block comments are skipped.
+ */
+public class JsonPullReader {
+    private static final int BUFFER_SIZE = 8192;
+
+    // Scope states kept on the stack
+    private static final int EMPTY_ARRAY = 1;
+    private static final int NONEMPTY_ARRAY = 2;
+    private static final int EMPTY_OBJECT = 3;
+    private static final int NONEMPTY_OBJECT = 4;
+
+    private final Reader reader;
+    private final char[] buffer;
+    private int pos;
+    private int limit;
+    private long offset; // Characters consumed before the buffer, for error messages
+
+    private int[] stack;
+    private int depth;
+    private final StringBuilder text;
+
+    public JsonPullReader(Reader reader) {
+        this.reader = reader;
+        this.buffer = new char[BUFFER_SIZE];
+        this.stack = new int[16];
+        this.depth = 0;
+        this.text = new StringBuilder(64);
+    }
+
+    /**
+     * Consumes the start of an object.
+     */
+    public void beginObject() throws IOException {
+        beforeValue();
+        expect('{');
+        push(EMPTY_OBJECT);
+    }
+
+    /**
+     * Consumes the end of the current object.
+     */
+    public void endObject() throws IOException {
+        expect('}');
+        pop(EMPTY_OBJECT, NONEMPTY_OBJECT);
+    }
+
+    /**
+     * Consumes the start of an array.
+     */
+    public void beginArray() throws IOException {
+        beforeValue();
+        expect('[');
+        push(EMPTY_ARRAY);
+    }
+
+    /**
+     * Consumes the end of the current array.
+     */
+    public void endArray() throws IOException {
+        expect(']');
+        pop(EMPTY_ARRAY, NONEMPTY_ARRAY);
+    }
+
+    /**
+     * Checks whether the current object or array has another element.
+     */
+    public boolean hasNext() throws IOException {
+        int c = peekNonWhitespace();
+        if (c == ',' && depth > 0
+                && (stack[depth - 1] == NONEMPTY_OBJECT || stack[depth - 1] == NONEMPTY_ARRAY)) {
+            // Consume the separator here so a trailing comma ends the scope
+            pos++;
+            c = peekNonWhitespace();
+        }
+        return c != '}' && c != ']' && c != -1;
+    }
+
+    /**
+     * Reads the name of the next object member.
+     */
+    public String nextName() throws IOException {
+        int scope = depth > 0 ? stack[depth - 1] : 0;
+        if (scope == NONEMPTY_OBJECT) {
+            skipSeparator();
+        } else if (scope != EMPTY_OBJECT) {
+            throw error("Name outside of an object");
+        }
+        stack[depth - 1] = NONEMPTY_OBJECT;
+        String name;
+        if (peekNonWhitespace() == '"') {
+            pos++;
+            name = readString();
+        } else {
+            name = readLiteral(true);
+        }
+        expect(':');
+        return name;
+    }
+
+    /**
+     * Reads a string value, or null for a JSON null.
+     */
+    public String nextString() throws IOException {
+        beforeValue();
+        int c = peekNonWhitespace();
+        if (c == '"') {
+            pos++;
+            return readString();
+        }
+        String literal = readLiteral(false);
+        if (literal.equals("null")) {
+            return null;
+        }
+        // Lenient: numbers and booleans read as their text
+        return literal;
+    }
+
+    /**
+     * Reads a numeric value as a float.
+     */
+    public float nextFloat() throws IOException {
+        return (float) nextDouble();
+    }
+
+    /**
+     * Reads a numeric value as a double.
+     */
+    public double nextDouble() throws IOException {
+        beforeValue();
+        int c = peekNonWhitespace();
+        String value;
+        if (c == '"') {
+            pos++;
+            value = readString();
+        } else {
+            value = readLiteral(false);
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw error("Expected a number but was: " + value);
+        }
+    }
+
+    /**
+     * Skips the next value, including nested objects and arrays.
+     */
+    public void skipValue() throws IOException {
+        int c = peekNonWhitespace();
+        if (c == '{') {
+            beginObject();
+            while (hasNext()) {
+                nextName();
+                skipValue();
+            }
+            endObject();
+        } else if (c == '[') {
+            beginArray();
+            while (hasNext()) {
+                skipValue();
+            }
+            endArray();
+        } else {
+            nextString();
+        }
+    }
+
+    /**
+     * Consumes the separator before a value in an array.
+     */
+    private void beforeValue() throws IOException {
+        if (depth == 0) {
+            return;
+        }
+        int scope = stack[depth - 1];
+        if (scope == NONEMPTY_ARRAY) {
+            skipSeparator();
+        } else if (scope == EMPTY_ARRAY) {
+            stack[depth - 1] = NONEMPTY_ARRAY;
+        }
+    }
+
+    /**
+     * Consumes the comma before the next member or element, if there is one.
+     */
+    private void skipSeparator() throws IOException {
+        if (peekNonWhitespace() == ',') {
+            pos++;
+        }
+    }
+
+    private void push(int scope) {
+        if (depth == stack.length) {
+            int[] grown = new int[depth * 2];
+            System.arraycopy(stack, 0, grown, 0, depth);
+            stack = grown;
+        }
+        stack[depth++] = scope;
+    }
+
+    private void pop(int emptyScope, int nonEmptyScope) {
+        if (depth == 0 || (stack[depth - 1] != emptyScope && stack[depth - 1] != nonEmptyScope)) {
+            throw error("Mismatched closing bracket");
+        }
+        depth--;
+    }
+
+    /**
+     * Reads the rest of a quoted string; the opening quote was consumed.
+     */
+    private String readString() throws IOException {
+        text.setLength(0);
+        while (true) {
+            int c = read();
+            if (c == -1) {
+                throw error("Unterminated string");
+            }
+            if (c == '"') {
+                return text.toString();
+            }
+            if (c == '\\') {
+                readEscape();
+            } else {
+                text.append((char) c);
+            }
+        }
+    }
+
+    /**
+     * Appends the character of an escape sequence to the text; the backslash was consumed.
+     */
+    private void readEscape() throws IOException {
+        int c = read();
+        switch (c) {
+            case 'n': text.append('\n'); break;
+            case 't': text.append('\t'); break;
+            case 'r': text.append('\r'); break;
+            case 'b': text.append('\b'); break;
+            case 'f': text.append('\f'); break;
+            case 'u': text.append(readUnicodeEscape()); break;
+            case -1: throw error("Unterminated escape");
+            default: text.append((char) c); break;
+        }
+    }
+
+    private char readUnicodeEscape() throws IOException {
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            int digit = Character.digit(read(), 16);
+            if (digit < 0) {
+                throw error("Invalid unicode escape");
+            }
+            value = (value << 4) | digit;
+        }
+        return (char) value;
+    }
+
+    /**
+     * Reads an unquoted token: a number, true, false, null, or an unquoted name or string.
+     * As in libGDX's minimal format, the token may contain spaces; it ends at a line
+     * break or at the next structural character, and trailing whitespace is dropped.
+     * @param name true to read a member name, which ends at ':'
+     */
+    private String readLiteral(boolean name) throws IOException {
+        text.setLength(0);
+        while (true) {
+            int c = peek();
+            if (c == -1 || c == ',' || c == '}' || c == ']' || c == '\n' || c == '\r' || (name && c == ':')) {
+                break;
+            }
+            pos++;
+            if (c == '\\') {
+                readEscape();
+            } else {
+                text.append((char) c);
+            }
+        }
+        int length = text.length();
+        while (length > 0 && Character.isWhitespace(text.charAt(length - 1))) {
+            length--;
+        }
+        if (length == 0) {
+            throw error(name ? "Expected a name" : "Expected a value");
+        }
+        return text.substring(0, length);
+    }
+
+    private void expect(char expected) throws IOException {
+        int c = peekNonWhitespace();
+        if (c != expected) {
+            throw error("Expected '" + expected + "' but was " + (c == -1 ? "end of input" : "'" + (char) c + "'"));
+        }
+        pos++;
+    }
+
+    /**
+     * Skips whitespace and comments and returns the next character without consuming it.
+     */
+    private int peekNonWhitespace() throws IOException {
+        while (true) {
+            int c = peek();
+            if (c == '/') {
+                pos++;
+                skipComment();
+            } else if (c == -1 || !Character.isWhitespace(c)) {
+                return c;
+            } else {
+                pos++;
+            }
+        }
+    }
+
+    /**
+     * Skips a comment; the leading slash was consumed.
+     */
+    private void skipComment() throws IOException {
+        int c = read();
+        if (c == '/') {
+            do {
+                c = read();
+            } while (c != '\n' && c != -1);
+        } else if (c == '*') {
+            int previous = 0;
+            while (true) {
+                c = read();
+                if (c == -1) {
+                    throw error("Unterminated comment");
+                }
+                if (previous == '*' && c == '/') {
+                    return;
+                }
+                previous = c;
+            }
+        } else {
+            throw error("Unexpected '/'");
+        }
+    }
+
+    private int peek() throws IOException {
+        if (pos == limit && !fill()) {
+            return -1;
+        }
+        return buffer[pos];
+    }
+
+    private int read() throws IOException {
+        if (pos == limit && !fill()) {
+            return -1;
+        }
+        return buffer[pos++];
+    }
+
+    private boolean fill() throws IOException {
+        offset += limit;
+        pos = 0;
+        limit = 0;
+        int count = reader.read(buffer, 0, buffer.length);
+        if (count <= 0) {
+            return false;
+        }
+        limit = count;
+        return true;
+    }
+
+    private SerializationException error(String message) {
+        return new SerializationException(message + " at character " + (offset + pos));
+    }
+}
@@ -0,0 +1,123 @@
+package com.leveleditor.editor;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.leveleditor.model.FormationData;
+import com.leveleditor.model.LevelData;
+import com.leveleditor.model.SpawnTable;
+import com.leveleditor.model.SpawnTableCompiler;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+
+/**
+ * Pipeline stage that turns an editor level into the {@link SpawnTable} the game loads:
+ * formations are resolved and expanded and every spawn is flattened into a sorted,
+ * packed record, so the game does none of that work at level start. Runs without a
+ * libGDX backend, so it can be used from build scripts:
+ * <pre>
+ * java -cp ... com.leveleditor.editor.LevelCompiler level.json formations.json level.spawns
+ * java -cp ... com.leveleditor.editor.LevelCompiler level.lvlb formations.json level.spawns
+ * </pre>
+ */
+public class LevelCompiler {
+    private final LevelSerializer jsonSerializer;
+    private final BinaryLevelSerializer binarySerializer;
+    private final FormationSerializer formationSerializer;
+    private final SpawnTableCompiler compiler;
+
+    public LevelCompiler() {
+        jsonSerializer = new LevelSerializer();
+        binarySerializer = new BinaryLevelSerializer();
+        formationSerializer = new FormationSerializer();
+        compiler = new SpawnTableCompiler();
+    }
+
+    /**
+     * Gets the spawn table file name that belongs to a level file name.
+     */
+    public static String getSpawnTableName(String levelFilename) {
+        int dot = levelFilename.lastIndexOf('.');
+        String base = dot > 0 ? levelFilename.substring(0, dot) : levelFilename;
+        return base + "." + SpawnTable.EXTENSION;
+    }
+
+    /**
+     * Compiles a level and its formations.
+     * Formation IDs that could not be resolved are available from {@link #getCompiler()}.
+     */
+    public SpawnTable compile(LevelData levelData, FormationData formationData) {
+        return compiler.compile(levelData, formationData);
+    }
+
+    /**
+     * Compiles a level file and writes the spawn table.
+     * @param levelFile JSON or binary level
+     * @param formationsFile Formation definitions
+     * @param output Spawn table file to create or replace
+     * @return The compiled table
+     */
+    public SpawnTable compile(FileHandle levelFile, FileHandle formationsFile, FileHandle output) throws IOException {
+        LevelData levelData = BinaryLevelSerializer.isBinaryLevel(levelFile.name())
+            ? binarySerializer.load(levelFile)
+            : jsonSerializer.load(levelFile);
+        FormationData formationData = formationSerializer.load(formationsFile);
+        SpawnTable table = compile(levelData, formationData);
+        save(table, output);
+        return table;
+    }
+
+    /**
+     * Saves a spawn table. The file is replaced atomically.
+     * @throws IOException if the file could not be written; the previous file is kept
+     */
+    public void save(final SpawnTable table, FileHandle file) throws IOException {
+        EditorEvents.SpawnTableSave event = new EditorEvents.SpawnTableSave();
+        event.begin();
+        boolean success = false;
+        try {
+            AtomicFileWriter.write(file.file(), new AtomicFileWriter.Content() {
+                @Override
+                public void write(FileChannel channel) throws IOException {
+                    table.write(channel);
+                }
+            });
+            success = true;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.path = file.path();
+                event.bytes = success ? file.length() : 0;
+                event.spawnCount = table.size();
+                event.success = success;
+                event.commit();
+            }
+        }
+    }
+
+    public SpawnTableCompiler getCompiler() {
+        return compiler;
+    }
+
+    /**
+     * Compiles the level given on the command line.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: LevelCompiler <level> <formations.json> [<output>]");
+            System.out.println("Writes a ." + SpawnTable.EXTENSION + " table next to the level unless an output is given.");
+            return;
+        }
+        FileHandle level = new FileHandle(args[0]);
+        FileHandle formations = new FileHandle(args[1]);
+        FileHandle output = args.length > 2
+            ? new FileHandle(args[2])
+            : level.sibling(getSpawnTableName(level.name()));
+
+        LevelCompiler levelCompiler = new LevelCompiler();
+        SpawnTable table = levelCompiler.compile(level, formations, output);
+        for (String id : levelCompiler.getCompiler().getUnresolvedFormationIds()) {
+            System.out.println("Warning: unknown formation '" + id + "', compiled as single spawns");
+        }
+        System.out.println("Compiled " + level.path() + " to " + output.path() + " (" + table.size() + " spawns)");
+    }
+}
@@ -0,0 +1,64 @@
+package com.leveleditor.editor;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.leveleditor.model.LevelData;
+
+import java.io.IOException;
+
+/**
+ * Converts levels between the JSON format of {@link LevelSerializer} and the binary
+ * format of {@link BinaryLevelSerializer}. Runs without a libGDX backend, so it can be
+ * used from build scripts:
+ * <pre>
+ * java -cp ... com.leveleditor.editor.LevelFormatConverter input.json output.lvlb
+ * java -cp ... com.leveleditor.editor.LevelFormatConverter input.lvlb output.json [--compact]
+ * </pre>
+ */
+public class LevelFormatConverter {
+    private final LevelSerializer jsonSerializer;
+    private final BinaryLevelSerializer binarySerializer;
+
+    public LevelFormatConverter() {
+        jsonSerializer = new LevelSerializer();
+        binarySerializer = new BinaryLevelSerializer();
+    }
+
+    /**
+     * Converts a JSON level to the binary format.
+     */
+    public void jsonToBinary(FileHandle jsonFile, FileHandle binaryFile) throws IOException {
+        LevelData levelData = jsonSerializer.load(jsonFile);
+        binarySerializer.save(levelData, binaryFile);
+    }
+
+    /**
+     * Converts a binary level to JSON.
+     * @param compact true to omit all whitespace
+     */
+    public void binaryToJson(FileHandle binaryFile, FileHandle jsonFile, boolean compact) throws IOException {
+        LevelData levelData = binarySerializer.load(binaryFile);
+        jsonSerializer.save(levelData, jsonFile, compact);
+    }
+
+    /**
+     * Converts a level based on the file extensions of the arguments.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.out.println("Usage: LevelFormatConverter <input> <output> [--compact]");
+            System.out.println("Converts between .json and ." + BinaryLevelSerializer.EXTENSION + " levels.");
+            return;
+        }
+        FileHandle input = new FileHandle(args[0]);
+        FileHandle output = new FileHandle(args[1]);
+        boolean compact = args.length > 2 && args[2].equals("--compact");
+
+        LevelFormatConverter converter = new LevelFormatConverter();
+        if (BinaryLevelSerializer.isBinaryLevel(input.name())) {
+            converter.binaryToJson(input, output, compact);
+        } else {
+            converter.jsonToBinary(input, output);
+        }
+        System.out.println("Converted " + input.path() + " to " + output.path());
+    }
+}
@@ -1,33 +1,167 @@
 package com.leveleditor.editor;
 
 import com.badlogic.gdx.files.FileHandle;
-import com.badlogic.gdx.utils.Json;
+import com.badlogic.gdx.utils.Array;
 import com.badlogic.gdx.utils.JsonWriter;
+import com.badlogic.gdx.utils.ObjectMap;
+import com.badlogic.gdx.utils.StreamUtils;
+import com.leveleditor.model.EventType;
 import com.leveleditor.model.LevelData;
+import com.leveleditor.model.LevelEvent;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 
 /**
  * Handles serialization and deserialization of level data to/from JSON files.
+ * Levels are streamed: events are written straight to a buffered writer and read
+ * one at a time by a pull parser, so the document is never held as a whole String.
  */
 public class LevelSerializer {
-    private final Json json;
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final JsonWriter.OutputType OUTPUT_TYPE = JsonWriter.OutputType.json;
+
+    // Defaults of the fields, which are left out the way libGDX Json leaves them out
+    private static final float DEFAULT_LEVEL_LENGTH = new LevelData().levelLength;
 
-    public LevelSerializer() {
-        json = new Json();
-        json.setOutputType(JsonWriter.OutputType.json);
+    /**
+     * Saves level data to a JSON file, laid out like libGDX's Json.prettyPrint.
+     * @param levelData The level data to save
+     * @param file The file to save to
+     * @throws IOException if the file could not be written; the previous file is kept
+     */
+    public void save(LevelData levelData, FileHandle file) throws IOException {
+        save(levelData, file, false);
     }
 
     /**
-     * Saves level data to a JSON file.
+     * Saves level data to a JSON file. The file is replaced atomically.
      * @param levelData The level data to save
      * @param file The file to save to
+     * @param compact true to omit all whitespace, false for the pretty-printed layout
+     * @throws IOException if the file could not be written; the previous file is kept
      */
-    public void save(LevelData levelData, FileHandle file) {
+    public void save(final LevelData levelData, FileHandle file, final boolean compact) throws IOException {
+        EditorEvents.LevelSave event = new EditorEvents.LevelSave();
+        event.begin();
+        boolean success = false;
         try {
-            String jsonString = json.prettyPrint(levelData);
-            file.writeString(jsonString, false);
-        } catch (Exception e) {
-            e.printStackTrace();
+            AtomicFileWriter.write(file.file(), new AtomicFileWriter.Content() {
+                @Override
+                public void write(FileChannel channel) throws IOException {
+                    Writer writer = new BufferedWriter(Channels.newWriter(channel, "UTF-8"), BUFFER_SIZE);
+                    LevelSerializer.this.write(levelData, writer, compact);
+                    writer.flush();
+                }
+            });
+            success = true;
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.path = file.path();
+                event.format = "json";
+                event.bytes = success ? file.length() : 0;
+                event.eventCount = levelData.events.size;
+                event.success = success;
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Writes level data as JSON. The pretty layout matches libGDX's Json.prettyPrint:
+     * top-level members unindented, nested members indented by tabs, and fields that
+     * hold their default value left out.
+     * @param levelData The level data to write
+     * @param writer Destination; not closed
+     * @param compact true to omit all whitespace, false for the pretty-printed layout
+     */
+    public void write(LevelData levelData, Writer writer, boolean compact) throws IOException {
+        String newline = compact ? "" : "\n";
+        String space = compact ? "" : " ";
+        Array<LevelEvent> events = levelData.events;
+
+        writer.write('{');
+        boolean first = true;
+        if (levelData.levelLength != DEFAULT_LEVEL_LENGTH) {
+            first = writeName("levelLength", first, newline, "", space, writer);
+            writer.write(formatNumber(levelData.levelLength));
+        }
+        if (events.size > 0) {
+            first = writeName("events", first, newline, "", space, writer);
+            writer.write('[');
+            String indent = compact ? "" : "\t";
+            String memberIndent = compact ? "" : "\t\t";
+            for (int i = 0; i < events.size; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(newline);
+                writer.write(indent);
+                writeEvent(events.get(i), newline, indent, memberIndent, space, writer);
+            }
+            writer.write(newline);
+            writer.write(']');
+        }
+        if (!first) {
+            writer.write(newline);
+        }
+        writer.write('}');
+    }
+
+    private void writeEvent(LevelEvent event, String newline, String indent, String memberIndent,
+            String space, Writer writer) throws IOException {
+        writer.write('{');
+        boolean first = true;
+        if (event.time != 0) {
+            first = writeName("time", first, newline, memberIndent, space, writer);
+            writer.write(formatNumber(event.time));
+        }
+        if (event.type != null) {
+            first = writeName("type", first, newline, memberIndent, space, writer);
+            writer.write(OUTPUT_TYPE.quoteValue(event.type.name()));
+        }
+        if (event.x != 0) {
+            first = writeName("x", first, newline, memberIndent, space, writer);
+            writer.write(formatNumber(event.x));
+        }
+        if (event.enemyType != null) {
+            first = writeName("enemyType", first, newline, memberIndent, space, writer);
+            writer.write(OUTPUT_TYPE.quoteValue(event.enemyType));
+        }
+        if (event.formationId != null) {
+            first = writeName("formationId", first, newline, memberIndent, space, writer);
+            writer.write(OUTPUT_TYPE.quoteValue(event.formationId));
+        }
+        if (!first) {
+            writer.write(newline);
+            writer.write(indent);
+        }
+        writer.write('}');
+    }
+
+    /**
+     * Writes the separator, indent and name of an object member.
+     * @param first Whether this is the first member of the object
+     * @return false, the value of first for the next member
+     */
+    private static boolean writeName(String name, boolean first, String newline, String indent,
+            String space, Writer writer) throws IOException {
+        if (!first) {
+            writer.write(',');
         }
+        writer.write(newline);
+        writer.write(indent);
+        writer.write('"');
+        writer.write(name);
+        writer.write("\":");
+        writer.write(space);
+        return false;
     }
 
     /**
@@ -36,14 +170,111 @@ public class LevelSerializer {
      * @return The loaded level data, or a new empty level if loading fails
      */
     public LevelData load(FileHandle file) {
+        EditorEvents.LevelLoad event = new EditorEvents.LevelLoad();
+        event.begin();
+        LevelData levelData = null;
+        Reader reader = null;
         try {
             if (file.exists()) {
-                String jsonString = file.readString();
-                return json.fromJson(LevelData.class, jsonString);
+                reader = new BufferedReader(file.reader("UTF-8"), BUFFER_SIZE);
+                levelData = read(reader);
             }
         } catch (Exception e) {
             e.printStackTrace();
+        } finally {
+            StreamUtils.closeQuietly(reader);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.path = file.path();
+            event.format = "json";
+            event.bytes = file.exists() ? file.length() : 0;
+            event.eventCount = levelData != null ? levelData.events.size : 0;
+            event.success = levelData != null;
+            event.commit();
+        }
+        return levelData != null ? levelData : new LevelData();
+    }
+
+    /**
+     * Reads level data from JSON, adding events as they are parsed.
+     * Unknown members are skipped. Equal enemyType and formationId values share one
+     * String. The returned level is sorted by time.
+     * @param reader Source; not closed
+     */
+    public LevelData read(Reader reader) throws IOException {
+        JsonPullReader json = new JsonPullReader(reader);
+        LevelData levelData = new LevelData();
+        Array<LevelEvent> events = new Array<>(false, 1024, LevelEvent.class);
+        ObjectMap<String, String> strings = new ObjectMap<>();
+
+        json.beginObject();
+        while (json.hasNext()) {
+            String name = json.nextName();
+            if (name.equals("levelLength")) {
+                levelData.levelLength = json.nextFloat();
+            } else if (name.equals("events")) {
+                json.beginArray();
+                while (json.hasNext()) {
+                    events.add(readEvent(json, strings));
+                }
+                json.endArray();
+            } else {
+                json.skipValue();
+            }
         }
-        return new LevelData();
+        json.endObject();
+
+        levelData.addEvents(events);
+        return levelData;
+    }
+
+    private LevelEvent readEvent(JsonPullReader json, ObjectMap<String, String> strings) throws IOException {
+        LevelEvent event = new LevelEvent();
+        json.beginObject();
+        while (json.hasNext()) {
+            String name = json.nextName();
+            if (name.equals("time")) {
+                event.time = json.nextFloat();
+            } else if (name.equals("x")) {
+                event.x = json.nextFloat();
+            } else if (name.equals("type")) {
+                String type = json.nextString();
+                event.type = type != null ? EventType.valueOf(type) : null;
+            } else if (name.equals("enemyType")) {
+                event.enemyType = share(json.nextString(), strings);
+            } else if (name.equals("formationId")) {
+                event.formationId = share(json.nextString(), strings);
+            } else {
+                json.skipValue();
+            }
+        }
+        json.endObject();
+        return event;
+    }
+
+    /**
+     * Returns the first String read with the same value, so repeated values share one
+     * instance. A level repeats a handful of enemy types and formation IDs across all
+     * of its events.
+     */
+    private static String share(String value, ObjectMap<String, String> strings) {
+        if (value == null) {
+            return null;
+        }
+        String shared = strings.get(value);
+        if (shared == null) {
+            strings.put(value, value);
+            return value;
+        }
+        return shared;
+    }
+
+    /**
+     * Formats a number the way libGDX Json does (no trailing ".0").
+     */
+    private static String formatNumber(float value) {
+        String text = Float.toString(value);
+        return text.endsWith(".0") ? text.substring(0, text.length() - 2) : text;
     }
 }
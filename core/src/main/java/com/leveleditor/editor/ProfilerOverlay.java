@@ -0,0 +1,165 @@
+package com.leveleditor.editor;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import com.badlogic.gdx.math.Matrix4;
+import com.badlogic.gdx.utils.Align;
+import com.badlogic.gdx.utils.Disposable;
+
+import java.util.Locale;
+
+/**
+ * Draws the data of a {@link FrameProfiler} in the top-right corner of the screen:
+ * a rolling graph of per-phase frame times stacked per frame, plus text with phase
+ * averages and maxima, GL counters, event counts, heap usage and GC activity.
+ * The text is refreshed a few times per second so it stays readable in screenshots.
+ */
+public class ProfilerOverlay implements Disposable {
+    private static final int BAR_WIDTH = 2;
+    private static final float GRAPH_HEIGHT = 120f;
+    private static final float GRAPH_MILLIS = 33.3f; // Frame time at the top of the graph
+    private static final float TARGET_MILLIS = 1000f / 60f;
+    private static final float PADDING = 8f;
+    private static final int TEXT_REFRESH_FRAMES = 15;
+
+    private static final Color[] PHASE_COLORS = {
+        new Color(0.4f, 0.8f, 1f, 1f),   // update
+        new Color(1f, 1f, 0.4f, 1f),     // input
+        new Color(0.6f, 0.6f, 0.6f, 1f), // grid
+        new Color(1f, 0.4f, 0.3f, 1f),   // markers
+        new Color(1f, 0.6f, 0.1f, 1f),   // formations
+        new Color(0.5f, 1f, 0.5f, 1f),   // ui
+    };
+    private static final Color BACKGROUND = new Color(0f, 0f, 0f, 0.75f);
+
+    private final FrameProfiler profiler;
+    private final TimelineView timelineView;
+    private final BitmapFont font;
+    private final ShapeRenderer shapeRenderer;
+    private final SpriteBatch batch;
+    private final Matrix4 projection = new Matrix4();
+    private final StringBuilder text = new StringBuilder();
+    private int framesUntilRefresh;
+
+    public ProfilerOverlay(FrameProfiler profiler, TimelineView timelineView, BitmapFont font) {
+        this.profiler = profiler;
+        this.timelineView = timelineView;
+        this.font = font;
+        this.shapeRenderer = new ShapeRenderer();
+        this.batch = new SpriteBatch();
+    }
+
+    /**
+     * Draws the overlay on top of the current frame.
+     */
+    public void draw() {
+        if (!profiler.isEnabled()) {
+            return;
+        }
+        int width = Gdx.graphics.getBackBufferWidth();
+        int height = Gdx.graphics.getBackBufferHeight();
+        projection.setToOrtho2D(0, 0, width, height);
+
+        if (--framesUntilRefresh <= 0) {
+            framesUntilRefresh = TEXT_REFRESH_FRAMES;
+            updateText();
+        }
+
+        float graphWidth = FrameProfiler.HISTORY * BAR_WIDTH;
+        float textHeight = font.getLineHeight() * (FrameProfiler.PHASE_COUNT + 6);
+        float panelWidth = graphWidth + PADDING * 2;
+        float panelHeight = GRAPH_HEIGHT + textHeight + PADDING * 3;
+        float panelX = width - panelWidth - PADDING;
+        float panelY = height - panelHeight - PADDING * 6; // Below the toolbar
+        float graphX = panelX + PADDING;
+        float graphY = panelY + PADDING;
+
+        Gdx.gl.glEnable(GL20.GL_BLEND);
+        Gdx.gl.glBlendFunc(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+        shapeRenderer.setProjectionMatrix(projection);
+        shapeRenderer.begin(ShapeRenderer.ShapeType.Filled);
+        shapeRenderer.setColor(BACKGROUND);
+        shapeRenderer.rect(panelX, panelY, panelWidth, panelHeight);
+
+        // One stacked bar per frame, newest on the right
+        float scale = GRAPH_HEIGHT / GRAPH_MILLIS / 1e6f;
+        int frames = profiler.getRecordedFrames();
+        for (int age = 0; age < frames; age++) {
+            float x = graphX + graphWidth - (age + 1) * BAR_WIDTH;
+            float y = graphY;
+            for (int phase = 0; phase < FrameProfiler.PHASE_COUNT; phase++) {
+                float barHeight = Math.min(profiler.getPhaseNanos(phase, age) * scale, graphY + GRAPH_HEIGHT - y);
+                if (barHeight > 0f) {
+                    shapeRenderer.setColor(PHASE_COLORS[phase]);
+                    shapeRenderer.rect(x, y, BAR_WIDTH, barHeight);
+                    y += barHeight;
+                }
+            }
+        }
+        shapeRenderer.end();
+
+        shapeRenderer.begin(ShapeRenderer.ShapeType.Line);
+        shapeRenderer.setColor(Color.WHITE);
+        float targetY = graphY + TARGET_MILLIS / GRAPH_MILLIS * GRAPH_HEIGHT;
+        shapeRenderer.line(graphX, targetY, graphX + graphWidth, targetY);
+        shapeRenderer.end();
+        Gdx.gl.glDisable(GL20.GL_BLEND);
+
+        batch.setProjectionMatrix(projection);
+        batch.begin();
+        float lineHeight = font.getLineHeight();
+        float textY = panelY + panelHeight - PADDING;
+        // First lines are the phases, tinted with their graph color
+        int line = 0;
+        int start = 0;
+        for (int i = 0; i <= text.length(); i++) {
+            if (i == text.length() || text.charAt(i) == '\n') {
+                font.setColor(line < FrameProfiler.PHASE_COUNT ? PHASE_COLORS[line] : Color.WHITE);
+                font.draw(batch, text, graphX, textY - line * lineHeight, start, i, 0f, Align.left, false);
+                start = i + 1;
+                line++;
+            }
+        }
+        font.setColor(Color.WHITE);
+        batch.end();
+    }
+
+    private void updateText() {
+        text.setLength(0);
+        for (int phase = 0; phase < FrameProfiler.PHASE_COUNT; phase++) {
+            text.append(String.format(Locale.ROOT, "%-11s %6.2f ms avg %6.2f max\n",
+                FrameProfiler.PHASE_NAMES[phase],
+                profiler.getAveragePhaseMillis(phase), profiler.getMaxPhaseMillis(phase)));
+        }
+        text.append(String.format(Locale.ROOT, "%-11s %6.2f ms avg %6.2f max (%d fps)\n",
+            "frame", profiler.getAverageFrameMillis(), profiler.getMaxFrameMillis(),
+            Gdx.graphics.getFramesPerSecond()));
+        text.append(String.format(Locale.ROOT, "draw calls %d, vertices %d\n",
+            profiler.getDrawCalls(), profiler.getVertexCount()));
+        text.append(String.format(Locale.ROOT, "texture binds %d, shader switches %d\n",
+            profiler.getTextureBindings(), profiler.getShaderSwitches()));
+        if (timelineView.isDensityView()) {
+            text.append(String.format(Locale.ROOT, "events %d (density view)\n",
+                timelineView.getEventActors().size));
+        } else {
+            text.append(String.format(Locale.ROOT, "events %d visible / %d\n",
+                timelineView.getVisibleEventCount(), timelineView.getEventActors().size));
+        }
+        Runtime runtime = Runtime.getRuntime();
+        long used = runtime.totalMemory() - runtime.freeMemory();
+        text.append(String.format(Locale.ROOT, "heap %d / %d MB\n",
+            used >> 20, runtime.maxMemory() >> 20));
+        text.append(String.format(Locale.ROOT, "gc %d collections, %d ms",
+            profiler.getGcCount(), profiler.getGcMillis()));
+    }
+
+    @Override
+    public void dispose() {
+        shapeRenderer.dispose();
+        batch.dispose();
+    }
+}
@@ -0,0 +1,116 @@
+package com.leveleditor.editor;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntMap;
+
+/**
+ * Index that groups event actors into fixed-height buckets along the timeline (Y axis).
+ * Lets the timeline fetch only the actors overlapping the visible range instead of
+ * walking every event in the level.
+ */
+public class TimeBucketIndex {
+    private final float bucketHeight;
+    private final IntMap<Array<EventActor>> buckets;
+    // Emptied buckets kept for reuse, so dragging an actor across buckets does not allocate
+    private final Array<Array<EventActor>> freeBuckets;
+    private int size;
+
+    /**
+     * Creates an empty index.
+     * @param bucketHeight Height of a bucket in world units
+     */
+    public TimeBucketIndex(float bucketHeight) {
+        this.bucketHeight = bucketHeight;
+        this.buckets = new IntMap<>();
+        this.freeBuckets = new Array<>(false, 16);
+        this.size = 0;
+    }
+
+    /**
+     * Adds an actor to the bucket containing its current center.
+     */
+    public void add(EventActor actor) {
+        int key = bucketOf(centerY(actor));
+        Array<EventActor> bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = freeBuckets.size > 0 ? freeBuckets.pop() : new Array<EventActor>(false, 16);
+            buckets.put(key, bucket);
+        }
+        bucket.add(actor);
+        size++;
+    }
+
+    /**
+     * Removes an actor from the index. Must be called before the actor is moved.
+     * @return true if the actor was indexed
+     */
+    public boolean remove(EventActor actor) {
+        int key = bucketOf(centerY(actor));
+        Array<EventActor> bucket = buckets.get(key);
+        if (bucket != null && bucket.removeValue(actor, true)) {
+            if (bucket.size == 0) {
+                buckets.remove(key);
+                freeBuckets.add(bucket);
+            }
+            size--;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Removes all actors from the index.
+     */
+    public void clear() {
+        buckets.clear();
+        size = 0;
+    }
+
+    /**
+     * Collects every actor whose bucket overlaps the given vertical range.
+     * @param bottom Lower bound in world units
+     * @param top Upper bound in world units
+     * @param out Receives the actors; cleared first
+     */
+    public void query(float bottom, float top, Array<EventActor> out) {
+        out.clear();
+        if (size == 0 || top < bottom) {
+            return;
+        }
+
+        int first = bucketOf(bottom);
+        int last = bucketOf(top);
+
+        // When the range spans more buckets than exist, walk the occupied ones instead.
+        if ((long) last - first >= buckets.size) {
+            for (IntMap.Entry<Array<EventActor>> entry : buckets.entries()) {
+                if (entry.key >= first && entry.key <= last) {
+                    out.addAll(entry.value);
+                }
+            }
+            return;
+        }
+
+        for (int key = first; key <= last; key++) {
+            Array<EventActor> bucket = buckets.get(key);
+            if (bucket != null) {
+                out.addAll(bucket);
+            }
+        }
+    }
+
+    /**
+     * Gets the number of indexed actors.
+     */
+    public int size() {
+        return size;
+    }
+
+    private int bucketOf(float y) {
+        return (int) Math.floor(y / bucketHeight);
+    }
+
+    private static float centerY(EventActor actor) {
+        return actor.getY() + EventActor.getEventSize() / 2;
+    }
+}
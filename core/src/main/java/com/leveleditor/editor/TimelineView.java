@@ -11,8 +11,10 @@ import com.leveleditor.model.EventType;
 import com.leveleditor.model.Formation;
 import com.leveleditor.model.FormationData;
 import com.leveleditor.model.LevelEvent;
+import com.leveleditor.player.EnemySimulation;
 
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IdentityMap;
 
 /**
  * The main timeline view that displays the level events on a scrollable canvas.
@@ -21,6 +23,7 @@ import com.badlogic.gdx.utils.Array;
 public class TimelineView {
     private OrthographicCamera camera;
     private ShapeRenderer shapeRenderer;
+    private EventMarkerRenderer markerRenderer;
     
     // View dimensions (in world units; we use 1 world unit = 1 pixel)
     private float viewportWidth;
@@ -30,11 +33,25 @@ public class TimelineView {
     private static final float PIXELS_PER_SECOND = 100f; // Vertical scaling
     private static final float TIME_GRID_STEP = 1f; // Grid line every 1 second
     private static final float X_GRID_STEP = 0.1f; // Grid line every 0.1 normalized units
+    private static final float BUCKET_SECONDS = 1f; // Time span covered by one event index bucket
+    private static final int MAX_TIME_GRID_LINES = 200; // Grid step doubles until this many lines fit
+    
+    // Formation preview layout
+    private static final float FORMATION_PREVIEW_SCALE = 30f;
+    private static final float FORMATION_PREVIEW_RADIUS = 5f;
+
+    // Size of simulated entities in preview mode
+    private static final float ENTITY_SIZE = 8f;
     
     // Zoom and pan
     private float zoom = 1f;
     private static final float MIN_ZOOM = 0.5f;
-    private static final float MAX_ZOOM = 3f;
+    private static final float MAX_ZOOM = 1000f;
+    private static final float ZOOM_STEP = 1.1f; // Zoom factor per mouse wheel notch
+
+    // Level of detail: above this zoom events are drawn as a density heatmap
+    private static final float LOD_ZOOM = 3f;
+    private static final float DENSITY_BIN_SECONDS = 0.25f; // Time span of a finest density bin
     
     private Vector2 lastDragPos = new Vector2();
     private boolean isPanning = false;
@@ -43,12 +60,32 @@ public class TimelineView {
     private float pendingScrollY = 0f;
 
     private Array<EventActor> eventActors;
+    private IdentityMap<LevelEvent, EventActor> actorsByEvent;
+    
+    // Time-bucketed index so rendering only touches actors near the visible range
+    private TimeBucketIndex eventIndex;
+    private final Array<EventActor> visibleActors = new Array<>(false, 256);
+    
+    // Uniform grid for picking the actor under the cursor
+    private EventPickGrid pickGrid;
+
+    // Event counts per time/x bin for the zoomed-out density view
+    private DensityPyramid densityPyramid;
+    private DensityHeatmap densityHeatmap;
     
     // Preview mode state
     private boolean previewMode;
+    private EnemySimulation simulation;
     
     // Formation data for rendering formation previews
     private FormationData formationData;
+    private FormationPreviewCache formationPreviews;
+    private float formationPreviewMargin;
+    private int formationPreviewMarginVersion = -1;
+
+    // Times render() phases for the profiler overlay; a disabled profiler of its own
+    // until the screen sets the shared one
+    private FrameProfiler profiler = new FrameProfiler();
 
     public TimelineView() {
         viewportWidth = Gdx.graphics.getWidth();
@@ -59,9 +96,14 @@ public class TimelineView {
         camera.update();
         
         shapeRenderer = new ShapeRenderer();
-        // EventActor switches between Filled/Line while drawing.
-        shapeRenderer.setAutoShapeType(true);
+        markerRenderer = new EventMarkerRenderer();
+        formationPreviews = new FormationPreviewCache(FORMATION_PREVIEW_SCALE, FORMATION_PREVIEW_RADIUS);
         eventActors = new Array<>();
+        actorsByEvent = new IdentityMap<>();
+        eventIndex = new TimeBucketIndex(BUCKET_SECONDS * PIXELS_PER_SECOND);
+        pickGrid = new EventPickGrid(EventActor.getEventSize());
+        densityPyramid = new DensityPyramid(DENSITY_BIN_SECONDS * PIXELS_PER_SECOND, viewportWidth);
+        densityHeatmap = new DensityHeatmap(PIXELS_PER_SECOND);
         previewMode = false;
         formationData = null;
     }
@@ -79,7 +121,7 @@ public class TimelineView {
         float scrollAmount = pendingScrollY;
         pendingScrollY = 0f;
         if (scrollAmount != 0f) {
-            zoom += scrollAmount * 0.1f;
+            zoom *= (float) Math.pow(ZOOM_STEP, scrollAmount);
             zoom = Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, zoom));
             camera.zoom = zoom;
             camera.update();
@@ -114,48 +156,77 @@ public class TimelineView {
     }
 
     /**
-     * Renders the timeline grid.
+     * Renders the timeline into its viewport, the left part of the screen when
+     * {@link #resize} gave it less than the full width.
      */
     public void render() {
+        Gdx.gl.glViewport(0, 0, (int) viewportWidth, (int) viewportHeight);
+        renderTimeline();
+        // The UI and overlays drawn after the timeline cover the whole screen
+        Gdx.gl.glViewport(0, 0, Gdx.graphics.getBackBufferWidth(), Gdx.graphics.getBackBufferHeight());
+    }
+
+    private void renderTimeline() {
+        EditorEvents.TimelineRender event = null;
+        if (EditorEvents.isRecording()) {
+            event = new EditorEvents.TimelineRender();
+            event.begin();
+        }
         camera.update();
         shapeRenderer.setProjectionMatrix(camera.combined);
 
         // Draw grid
+        profiler.begin(FrameProfiler.GRID);
         shapeRenderer.begin(ShapeRenderer.ShapeType.Line);
         shapeRenderer.setColor(Color.DARK_GRAY);
 
+        float viewBottom = camera.position.y - viewportHeight / 2f * zoom;
+        float viewTop = camera.position.y + viewportHeight / 2f * zoom;
+
         // Vertical grid lines (X position)
         for (float x = 0; x <= 1.0f; x += X_GRID_STEP) {
             float screenX = x * viewportWidth;
-            shapeRenderer.line(screenX, 0, screenX, 10000); // Draw long lines
+            shapeRenderer.line(screenX, Math.max(0f, viewBottom), screenX, viewTop);
         }
 
-        // Horizontal grid lines (time)
-        float viewBottom = camera.position.y - viewportHeight / 2f * zoom;
-        float viewTop = camera.position.y + viewportHeight / 2f * zoom;
-
-        float startTime = (float) Math.floor((viewBottom / PIXELS_PER_SECOND) / TIME_GRID_STEP) * TIME_GRID_STEP;
-        float endTime = (float) Math.ceil((viewTop / PIXELS_PER_SECOND) / TIME_GRID_STEP) * TIME_GRID_STEP;
+        // Horizontal grid lines (time), coarser when zoomed far out
+        float gridStep = TIME_GRID_STEP;
+        while ((viewTop - viewBottom) / PIXELS_PER_SECOND / gridStep > MAX_TIME_GRID_LINES) {
+            gridStep *= 2f;
+        }
+        float startTime = (float) Math.floor((viewBottom / PIXELS_PER_SECOND) / gridStep) * gridStep;
+        float endTime = (float) Math.ceil((viewTop / PIXELS_PER_SECOND) / gridStep) * gridStep;
 
-        for (float t = startTime; t <= endTime; t += TIME_GRID_STEP) {
+        for (float t = startTime; t <= endTime; t += gridStep) {
             float screenY = t * PIXELS_PER_SECOND;
             shapeRenderer.line(0, screenY, viewportWidth, screenY);
         }
 
         shapeRenderer.end();
+        profiler.end(FrameProfiler.GRID);
+
+        // Zoomed far out: aggregate events instead of drawing them one by one
+        profiler.begin(FrameProfiler.MARKERS);
+        if (isDensityView()) {
+            densityHeatmap.draw(camera.combined, densityPyramid, viewBottom, viewTop, zoom);
+            profiler.end(FrameProfiler.MARKERS);
+            commitRenderEvent(event, true);
+            return;
+        }
+
+        // Only fetch actors near the visible range; formation previews may reach further
+        float margin = Math.max(EventActor.getEventSize(), getFormationPreviewMargin());
+        eventIndex.query(viewBottom - margin, viewTop + margin, visibleActors);
 
         // Draw events
-        shapeRenderer.begin(ShapeRenderer.ShapeType.Filled);
-        for (EventActor actor : eventActors) {
-            actor.draw(shapeRenderer, 1f);
-        }
-        shapeRenderer.end();
+        markerRenderer.draw(camera.combined, visibleActors);
+        profiler.end(FrameProfiler.MARKERS);
         
         // Draw formation previews for FORMATION events
+        profiler.begin(FrameProfiler.FORMATIONS);
         if (formationData != null) {
-            shapeRenderer.begin(ShapeRenderer.ShapeType.Line);
-            shapeRenderer.setColor(Color.LIGHT_GRAY);
-            for (EventActor actor : eventActors) {
+            formationPreviews.begin(camera.combined, Color.LIGHT_GRAY, formationData);
+            for (EventActor actor : visibleActors) {
                 if (actor.getEvent().type == EventType.FORMATION && 
                     actor.getEvent().formationId != null && 
                     !actor.getEvent().formationId.equals("none")) {
@@ -165,7 +236,31 @@ public class TimelineView {
                     }
                 }
             }
-            shapeRenderer.end();
+            formationPreviews.end();
+        }
+        profiler.end(FrameProfiler.FORMATIONS);
+
+        // Simulated entities on the screen below the preview line, which is the spawn line
+        if (previewMode && simulation != null && simulation.getCount() > 0) {
+            profiler.begin(FrameProfiler.MARKERS);
+            markerRenderer.drawEntities(camera.combined, simulation, viewportWidth, camera.position.y,
+                (viewTop - viewBottom) / 2f, ENTITY_SIZE, viewTop);
+            profiler.end(FrameProfiler.MARKERS);
+        }
+        commitRenderEvent(event, false);
+    }
+
+    private void commitRenderEvent(EditorEvents.TimelineRender event, boolean densityView) {
+        if (event == null) {
+            return;
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            event.zoom = zoom;
+            event.densityView = densityView;
+            event.visibleEvents = densityView ? 0 : visibleActors.size;
+            event.totalEvents = eventActors.size;
+            event.commit();
         }
     }
 
@@ -183,6 +278,34 @@ public class TimelineView {
         return y / PIXELS_PER_SECOND;
     }
 
+    /**
+     * Converts a vertical mouse movement (screen pixels) to a time offset at the current zoom.
+     */
+    public float screenDeltaToTime(float screenDeltaY) {
+        return screenDeltaY * zoom / PIXELS_PER_SECOND;
+    }
+
+    /**
+     * Gets the time at the center of the view.
+     */
+    public float getCenterTime() {
+        return yToTime(camera.position.y);
+    }
+
+    /**
+     * Gets the time at the bottom edge of the view.
+     */
+    public float getViewStartTime() {
+        return yToTime(camera.position.y - viewportHeight / 2f * zoom);
+    }
+
+    /**
+     * Gets the time at the top edge of the view.
+     */
+    public float getViewEndTime() {
+        return yToTime(camera.position.y + viewportHeight / 2f * zoom);
+    }
+
     /**
      * Converts normalized X position (0-1) to screen X coordinate.
      */
@@ -199,27 +322,130 @@ public class TimelineView {
 
     /**
      * Converts screen coordinates to world coordinates.
+     * Allocates the result; per-frame code should pass its own vector instead.
      */
     public Vector3 screenToWorld(float screenX, float screenY) {
-        // LibGDX input Y is top-left origin, but unproject expects bottom-left.
-        float flippedY = Gdx.graphics.getHeight() - screenY;
-        return camera.unproject(new Vector3(screenX, flippedY, 0));
+        return screenToWorld(screenX, screenY, new Vector3());
+    }
+
+    /**
+     * Converts screen coordinates to world coordinates without allocating.
+     * @param out Receives the world coordinates
+     * @return out
+     */
+    public Vector3 screenToWorld(float screenX, float screenY, Vector3 out) {
+        // unproject takes top-left origin input coordinates, which are in logical pixels;
+        // the viewport size is in back buffer pixels
+        float scale = Gdx.graphics.getWidth() / (float) Gdx.graphics.getBackBufferWidth();
+        return camera.unproject(out.set(screenX, screenY, 0), 0, 0, viewportWidth * scale, viewportHeight * scale);
     }
 
     /**
-     * Adds an event actor to the timeline.
+     * Adds an event actor to the timeline, positioned at its event.
      */
     public void addEventActor(EventActor actor) {
         eventActors.add(actor);
+        actorsByEvent.put(actor.getEvent(), actor);
+        positionEventActor(actor);
+        indexActor(actor);
     }
 
     /**
      * Removes an event actor from the timeline.
      */
     public void removeEventActor(EventActor actor) {
+        unindexActor(actor);
+        actorsByEvent.remove(actor.getEvent());
         eventActors.removeValue(actor, true);
     }
 
+    /**
+     * Removes all event actors from the timeline.
+     */
+    public void clearEventActors() {
+        eventIndex.clear();
+        pickGrid.clear();
+        densityPyramid.clear();
+        actorsByEvent.clear();
+        eventActors.clear();
+    }
+
+    /**
+     * Replaces all event actors at once, e.g. with actors created while loading a level.
+     */
+    public void setEventActors(Array<EventActor> actors) {
+        clearEventActors();
+        eventActors.ensureCapacity(actors.size);
+        for (EventActor actor : actors) {
+            addEventActor(actor);
+        }
+    }
+
+    /**
+     * Moves an event actor to a new position, keeping the spatial indexes in sync.
+     */
+    public void moveEventActor(EventActor actor, float x, float y) {
+        unindexActor(actor);
+        actor.setPosition(x, y);
+        indexActor(actor);
+    }
+
+    /**
+     * Moves an event actor back onto its event, e.g. after the event was changed by undo.
+     */
+    public void updateEventActorPosition(EventActor actor) {
+        unindexActor(actor);
+        positionEventActor(actor);
+        indexActor(actor);
+    }
+
+    /**
+     * Finds the event actor nearest to a world position.
+     * @param worldX World X coordinate
+     * @param worldY World Y coordinate
+     * @return The nearest actor within the pick radius, or null if none or the density view is shown
+     */
+    public EventActor pickEventActor(float worldX, float worldY) {
+        // Markers are hidden in the density view, so nothing there can be clicked
+        if (isDensityView()) {
+            return null;
+        }
+        return pickGrid.findNearest(worldX, worldY, EventActor.getEventSize());
+    }
+
+    private void indexActor(EventActor actor) {
+        eventIndex.add(actor);
+        pickGrid.add(actor);
+        densityPyramid.add(actor);
+    }
+
+    private void unindexActor(EventActor actor) {
+        eventIndex.remove(actor);
+        pickGrid.remove(actor);
+        densityPyramid.remove(actor);
+    }
+
+    /**
+     * Checks whether the view is zoomed out far enough to show event density instead of markers.
+     */
+    public boolean isDensityView() {
+        return zoom > LOD_ZOOM;
+    }
+
+    /**
+     * Gets the number of event actors fetched for drawing in the last rendered frame.
+     */
+    public int getVisibleEventCount() {
+        return visibleActors.size;
+    }
+
+    /**
+     * Sets the profiler that times the grid, marker and formation preview phases of render().
+     */
+    public void setProfiler(FrameProfiler profiler) {
+        this.profiler = profiler;
+    }
+
     /**
      * Gets all event actors.
      */
@@ -227,27 +453,46 @@ public class TimelineView {
         return eventActors;
     }
 
+    /**
+     * Gets the actor that displays the given event.
+     * @return The actor, or null if the event has none
+     */
+    public EventActor getActorForEvent(LevelEvent event) {
+        return actorsByEvent.get(event);
+    }
+
     /**
      * Updates positions of all event actors based on their associated events.
      */
     public void updateEventActorPositions() {
+        eventIndex.clear();
+        pickGrid.clear();
+        densityPyramid.clear();
         for (EventActor actor : eventActors) {
-            LevelEvent event = actor.getEvent();
-            float screenX = normalizedXToScreen(event.x) - EventActor.getEventSize() / 2;
-            float screenY = timeToY(event.time) - EventActor.getEventSize() / 2;
-            actor.setPosition(screenX, screenY);
+            positionEventActor(actor);
+            indexActor(actor);
         }
     }
 
+    private void positionEventActor(EventActor actor) {
+        LevelEvent event = actor.getEvent();
+        float screenX = normalizedXToScreen(event.x) - EventActor.getEventSize() / 2;
+        float screenY = timeToY(event.time) - EventActor.getEventSize() / 2;
+        actor.setPosition(screenX, screenY);
+    }
+
     /**
-     * Updates events based on actor positions.
+     * Gets the event time (seconds) at an actor's current position.
      */
-    public void updateEventsFromActors() {
-        for (EventActor actor : eventActors) {
-            LevelEvent event = actor.getEvent();
-            event.x = screenXToNormalized(actor.getX() + EventActor.getEventSize() / 2);
-            event.time = Math.max(0, yToTime(actor.getY() + EventActor.getEventSize() / 2));
-        }
+    public float getActorTime(EventActor actor) {
+        return Math.max(0, yToTime(actor.getY() + EventActor.getEventSize() / 2));
+    }
+
+    /**
+     * Gets the normalized X position (0-1) at an actor's current position.
+     */
+    public float getActorNormalizedX(EventActor actor) {
+        return screenXToNormalized(actor.getX() + EventActor.getEventSize() / 2);
     }
 
     public OrthographicCamera getCamera() {
@@ -272,18 +517,28 @@ public class TimelineView {
     }
 
     /**
-     * Updates the timeline viewport to match the window size.
+     * Sets the size of the timeline viewport, which starts at the bottom-left corner of
+     * the screen.
+     * @param width Width in back buffer pixels, less than the window's when a panel is beside it
+     * @param height Height in back buffer pixels
      */
     public void resize(int width, int height) {
         if (width <= 0 || height <= 0) {
             return;
         }
 
+        // Keep the left edge of the view in place, e.g. when the difficulty panel is toggled
+        camera.position.x += (width - viewportWidth) / 2f * zoom;
         viewportWidth = width;
         viewportHeight = height;
         camera.viewportWidth = viewportWidth;
         camera.viewportHeight = viewportHeight;
         camera.update();
+
+        // Actor x positions scale with the view width: lay them out again from their
+        // events' normalized x, so markers, picking and density bins all follow
+        densityPyramid.setWidth(viewportWidth);
+        updateEventActorPositions();
     }
 
     public float getViewportWidth() {
@@ -300,12 +555,20 @@ public class TimelineView {
     public void setPreviewMode(boolean previewMode) {
         this.previewMode = previewMode;
     }
+
+    /**
+     * Sets the simulation whose entities are drawn in preview mode.
+     */
+    public void setSimulation(EnemySimulation simulation) {
+        this.simulation = simulation;
+    }
     
     /**
      * Sets the formation data for rendering formation previews.
      */
     public void setFormationData(FormationData formationData) {
         this.formationData = formationData;
+        this.formationPreviewMarginVersion = -1;
     }
     
     /**
@@ -314,17 +577,36 @@ public class TimelineView {
     private void drawFormationPreview(LevelEvent event, Formation formation) {
         float baseX = normalizedXToScreen(event.x);
         float baseY = timeToY(event.time);
-        float previewScale = 30f; // Scale factor for preview visualization
         
-        // Draw small circles for each enemy in the formation
-        for (Vector2 relPos : formation.relativePositions) {
-            float enemyX = baseX + relPos.x * previewScale;
-            float enemyY = baseY + relPos.y * previewScale;
-            shapeRenderer.circle(enemyX, enemyY, 5f);
+        // Small circles for each enemy in the formation, cached per formation
+        formationPreviews.draw(formation, baseX, baseY);
+    }
+
+    /**
+     * Gets how far (in world units) a formation preview can extend vertically from its event.
+     */
+    private float getFormationPreviewMargin() {
+        if (formationData == null) {
+            return 0f;
+        }
+        // Only rescan the formations after they changed
+        if (formationPreviewMarginVersion != formationData.getVersion()) {
+            float maxOffset = 0f;
+            for (Formation formation : formationData.formations) {
+                for (Vector2 relPos : formation.relativePositions) {
+                    maxOffset = Math.max(maxOffset, Math.abs(relPos.y));
+                }
+            }
+            formationPreviewMargin = maxOffset * FORMATION_PREVIEW_SCALE + FORMATION_PREVIEW_RADIUS;
+            formationPreviewMarginVersion = formationData.getVersion();
         }
+        return formationPreviewMargin;
     }
 
     public void dispose() {
         shapeRenderer.dispose();
+        markerRenderer.dispose();
+        densityHeatmap.dispose();
+        formationPreviews.dispose();
     }
 }
@@ -0,0 +1,321 @@
+package com.leveleditor.editor;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.Queue;
+import com.badlogic.gdx.utils.TimeUtils;
+import com.leveleditor.model.LevelEvent;
+
+/**
+ * Undo/redo history made of small edit records.
+ * Each record only references the events it changed; all other events are shared with
+ * the live level, so undoing an edit costs O(changed events) no matter how large the
+ * level is. The history is bounded by an estimated memory budget: when it is exceeded,
+ * the oldest edits are forgotten. Repeated moves of the same event in quick succession
+ * (e.g. dragging it into place in several goes) are coalesced into one edit.
+ */
+public class UndoHistory {
+    public static final long DEFAULT_MEMORY_BUDGET = 4L * 1024 * 1024;
+    public static final long COALESCE_MILLIS = 1000;
+
+    // Rough heap cost estimates used for the memory budget
+    private static final long EDIT_BYTES = 48;
+    private static final long EVENT_BYTES = 64;
+
+    /**
+     * Applies edits to the level. Implemented by the controller so that undo and redo
+     * go through the same code path as regular edits (journal, actors, indexes).
+     */
+    interface Target {
+        void insertEvent(LevelEvent event);
+        void removeEvent(LevelEvent event);
+        void moveEvent(LevelEvent event, float time, float x);
+        void setEventProperties(LevelEvent event, String enemyType, String formationId);
+    }
+
+    /**
+     * A single reversible change to the level.
+     */
+    abstract static class Edit {
+        long timestamp = TimeUtils.millis();
+        long size; // memorySize() when recorded; events may change afterwards
+
+        abstract void undo(Target target);
+
+        abstract void redo(Target target);
+
+        /**
+         * Estimated heap size in bytes while this edit is kept in the history.
+         */
+        abstract long memorySize();
+
+        /**
+         * Short description for the status bar.
+         */
+        abstract String getName();
+
+        /**
+         * Tries to fold a following edit into this one.
+         * @return true if next was merged and must not be recorded separately
+         */
+        boolean merge(Edit next) {
+            return false;
+        }
+    }
+
+    static class CreateEdit extends Edit {
+        private final LevelEvent event;
+
+        CreateEdit(LevelEvent event) {
+            this.event = event;
+        }
+
+        @Override
+        void undo(Target target) {
+            target.removeEvent(event);
+        }
+
+        @Override
+        void redo(Target target) {
+            target.insertEvent(event);
+        }
+
+        @Override
+        long memorySize() {
+            return EDIT_BYTES + eventSize(event);
+        }
+
+        @Override
+        String getName() {
+            return "create event";
+        }
+    }
+
+    static class DeleteEdit extends Edit {
+        private final LevelEvent event;
+
+        DeleteEdit(LevelEvent event) {
+            this.event = event;
+        }
+
+        @Override
+        void undo(Target target) {
+            target.insertEvent(event);
+        }
+
+        @Override
+        void redo(Target target) {
+            target.removeEvent(event);
+        }
+
+        @Override
+        long memorySize() {
+            return EDIT_BYTES + eventSize(event);
+        }
+
+        @Override
+        String getName() {
+            return "delete event";
+        }
+    }
+
+    static class MoveEdit extends Edit {
+        private final LevelEvent event;
+        private final float oldTime, oldX;
+        private float newTime, newX;
+
+        MoveEdit(LevelEvent event, float oldTime, float oldX, float newTime, float newX) {
+            this.event = event;
+            this.oldTime = oldTime;
+            this.oldX = oldX;
+            this.newTime = newTime;
+            this.newX = newX;
+        }
+
+        @Override
+        void undo(Target target) {
+            target.moveEvent(event, oldTime, oldX);
+        }
+
+        @Override
+        void redo(Target target) {
+            target.moveEvent(event, newTime, newX);
+        }
+
+        @Override
+        long memorySize() {
+            return EDIT_BYTES + 16;
+        }
+
+        @Override
+        String getName() {
+            return "move event";
+        }
+
+        @Override
+        boolean merge(Edit next) {
+            if (!(next instanceof MoveEdit)) {
+                return false;
+            }
+            MoveEdit move = (MoveEdit) next;
+            if (move.event != event || move.timestamp - timestamp > COALESCE_MILLIS) {
+                return false;
+            }
+            newTime = move.newTime;
+            newX = move.newX;
+            timestamp = move.timestamp;
+            return true;
+        }
+    }
+
+    static class PropertiesEdit extends Edit {
+        private final LevelEvent event;
+        private final String oldEnemyType, oldFormationId;
+        private final String newEnemyType, newFormationId;
+
+        PropertiesEdit(LevelEvent event, String oldEnemyType, String oldFormationId,
+                       String newEnemyType, String newFormationId) {
+            this.event = event;
+            this.oldEnemyType = oldEnemyType;
+            this.oldFormationId = oldFormationId;
+            this.newEnemyType = newEnemyType;
+            this.newFormationId = newFormationId;
+        }
+
+        @Override
+        void undo(Target target) {
+            target.setEventProperties(event, oldEnemyType, oldFormationId);
+        }
+
+        @Override
+        void redo(Target target) {
+            target.setEventProperties(event, newEnemyType, newFormationId);
+        }
+
+        @Override
+        long memorySize() {
+            return EDIT_BYTES + stringSize(oldEnemyType) + stringSize(oldFormationId)
+                + stringSize(newEnemyType) + stringSize(newFormationId);
+        }
+
+        @Override
+        String getName() {
+            return "edit properties";
+        }
+    }
+
+    private final Target target;
+    private final Queue<Edit> undoEdits;
+    private final Array<Edit> redoEdits;
+    private long memoryBudget;
+    private long memoryUsed;
+
+    UndoHistory(Target target) {
+        this.target = target;
+        this.undoEdits = new Queue<>();
+        this.redoEdits = new Array<>();
+        this.memoryBudget = DEFAULT_MEMORY_BUDGET;
+        this.memoryUsed = 0;
+    }
+
+    /**
+     * Records an edit that has just been applied. Clears the redo history.
+     */
+    void record(Edit edit) {
+        // Coalescing must not reach back across an undo
+        boolean undone = redoEdits.size > 0;
+        for (Edit redo : redoEdits) {
+            memoryUsed -= redo.size;
+        }
+        redoEdits.clear();
+
+        if (!undone && undoEdits.size > 0 && undoEdits.last().merge(edit)) {
+            return;
+        }
+        edit.size = edit.memorySize();
+        undoEdits.addLast(edit);
+        memoryUsed += edit.size;
+        trim();
+    }
+
+    /**
+     * Reverts the most recent edit.
+     * @return Description of the reverted edit, or null if there was nothing to undo
+     */
+    public String undo() {
+        if (undoEdits.size == 0) {
+            return null;
+        }
+        Edit edit = undoEdits.removeLast();
+        edit.undo(target);
+        redoEdits.add(edit);
+        return edit.getName();
+    }
+
+    /**
+     * Re-applies the most recently undone edit.
+     * @return Description of the re-applied edit, or null if there was nothing to redo
+     */
+    public String redo() {
+        if (redoEdits.size == 0) {
+            return null;
+        }
+        Edit edit = redoEdits.pop();
+        edit.redo(target);
+        // Coalescing must not reach back across a redo
+        edit.timestamp = 0;
+        undoEdits.addLast(edit);
+        return edit.getName();
+    }
+
+    public boolean canUndo() {
+        return undoEdits.size > 0;
+    }
+
+    public boolean canRedo() {
+        return redoEdits.size > 0;
+    }
+
+    /**
+     * Forgets all edits, e.g. when another level is loaded.
+     */
+    public void clear() {
+        undoEdits.clear();
+        redoEdits.clear();
+        memoryUsed = 0;
+    }
+
+    /**
+     * Sets the estimated number of bytes the history may use.
+     * The most recent edit is always kept, even if it alone exceeds the budget.
+     */
+    public void setMemoryBudget(long bytes) {
+        memoryBudget = Math.max(0, bytes);
+        trim();
+    }
+
+    public long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    /**
+     * Gets the estimated number of bytes used by the undo and redo edits.
+     */
+    public long getMemoryUsed() {
+        return memoryUsed;
+    }
+
+    private void trim() {
+        // Redo edits are the most recently undone work; drop the oldest undo edits first
+        while (memoryUsed > memoryBudget && undoEdits.size > 1) {
+            memoryUsed -= undoEdits.removeFirst().size;
+        }
+    }
+
+    private static long eventSize(LevelEvent event) {
+        return EVENT_BYTES + stringSize(event.enemyType) + stringSize(event.formationId);
+    }
+
+    private static long stringSize(String value) {
+        return value == null ? 0 : 40 + 2L * value.length();
+    }
+}
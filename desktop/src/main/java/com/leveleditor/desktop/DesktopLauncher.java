@@ -3,13 +3,22 @@ package com.leveleditor.desktop;
 import com.badlogic.gdx.backends.lwjgl3.Lwjgl3Application;
 import com.badlogic.gdx.backends.lwjgl3.Lwjgl3ApplicationConfiguration;
 import com.leveleditor.EditorGame;
+import com.leveleditor.editor.UndoHistory;
 
 /**
  * Desktop launcher for the Level Editor.
  * Uses LWJGL3 backend for desktop deployment.
+ * Options: --undo-budget-mb N sets the memory budget of the undo history.
  */
 public class DesktopLauncher {
     public static void main(String[] args) {
+        long undoMemoryBudget = UndoHistory.DEFAULT_MEMORY_BUDGET;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--undo-budget-mb") && i + 1 < args.length) {
+                undoMemoryBudget = Long.parseLong(args[++i]) * 1024 * 1024;
+            }
+        }
+
         Lwjgl3ApplicationConfiguration config = new Lwjgl3ApplicationConfiguration();
         
         // Window configuration
@@ -19,6 +28,6 @@ public class DesktopLauncher {
         config.setForegroundFPS(60);
         
         // Create the application
-        new Lwjgl3Application(new EditorGame(), config);
+        new Lwjgl3Application(new EditorGame(undoMemoryBudget), config);
     }
 }
@@ -0,0 +1,164 @@
+package com.leveleditor.model;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectIntMap;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Helpers shared by the columnar formats: string dictionaries that turn strings into
+ * small ids, and writing and reading primitive columns through a ByteBuffer.
+ *
+ * Writes go through a fixed buffer that is flushed to the channel whenever the next
+ * value does not fit, so a file of any size is written without a buffer of its size.
+ * Reads copy a whole column in bulk from a buffer in the file's byte order.
+ */
+public final class ColumnIO {
+    public static final int NO_STRING = -1; // Id of a null string
+
+    private ColumnIO() {
+    }
+
+    /**
+     * Gets the id of a string in a dictionary, adding it if it is new.
+     * @param value String to look up, or null
+     * @param strings Dictionary strings in id order
+     * @param stringIds Ids of the dictionary strings
+     * @return The string's id, or {@link #NO_STRING} for null
+     */
+    public static int intern(String value, Array<String> strings, ObjectIntMap<String> stringIds) {
+        if (value == null) {
+            return NO_STRING;
+        }
+        int id = stringIds.get(value, NO_STRING);
+        if (id == NO_STRING) {
+            id = strings.size;
+            strings.add(value);
+            stringIds.put(value, id);
+        }
+        return id;
+    }
+
+    /**
+     * Writes a string dictionary: the count, then per string its UTF-8 byte length and
+     * bytes, padded so the columns that follow start at a multiple of 4 bytes.
+     * @param offset Bytes written since the start of the file, to compute the padding
+     */
+    public static void writeStrings(Array<String> strings, long offset, ByteBuffer buffer,
+            WritableByteChannel channel) throws IOException {
+        writeInt(strings.size, buffer, channel);
+        long written = offset + 4;
+        for (String string : strings) {
+            byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+            writeInt(bytes.length, buffer, channel);
+            int position = 0;
+            while (position < bytes.length) {
+                ensureRemaining(buffer, channel, 1);
+                int chunk = Math.min(buffer.remaining(), bytes.length - position);
+                buffer.put(bytes, position, chunk);
+                position += chunk;
+            }
+            written += 4 + bytes.length;
+        }
+        while (written % 4 != 0) {
+            writeByte((byte) 0, buffer, channel);
+            written++;
+        }
+    }
+
+    /**
+     * Reads a string dictionary written by {@link #writeStrings}, including its padding.
+     * @param start Position of the start of the file in the buffer
+     */
+    public static String[] readStrings(ByteBuffer buffer, int start) {
+        String[] strings = new String[buffer.getInt()];
+        byte[] bytes = new byte[64];
+        for (int i = 0; i < strings.length; i++) {
+            int length = buffer.getInt();
+            if (length > bytes.length) {
+                bytes = new byte[Math.max(length, bytes.length * 2)];
+            }
+            buffer.get(bytes, 0, length);
+            strings[i] = new String(bytes, 0, length, StandardCharsets.UTF_8);
+        }
+        int padding = (4 - (buffer.position() - start) % 4) % 4;
+        buffer.position(buffer.position() + padding);
+        return strings;
+    }
+
+    public static void writeFloats(float[] values, int count, ByteBuffer buffer, WritableByteChannel channel)
+            throws IOException {
+        for (int i = 0; i < count; i++) {
+            writeFloat(values[i], buffer, channel);
+        }
+    }
+
+    public static void writeInts(int[] values, int count, ByteBuffer buffer, WritableByteChannel channel)
+            throws IOException {
+        for (int i = 0; i < count; i++) {
+            writeInt(values[i], buffer, channel);
+        }
+    }
+
+    public static void writeBytes(byte[] values, int count, ByteBuffer buffer, WritableByteChannel channel)
+            throws IOException {
+        for (int i = 0; i < count; i++) {
+            writeByte(values[i], buffer, channel);
+        }
+    }
+
+    public static void writeFloat(float value, ByteBuffer buffer, WritableByteChannel channel) throws IOException {
+        ensureRemaining(buffer, channel, 4);
+        buffer.putFloat(value);
+    }
+
+    public static void writeInt(int value, ByteBuffer buffer, WritableByteChannel channel) throws IOException {
+        ensureRemaining(buffer, channel, 4);
+        buffer.putInt(value);
+    }
+
+    public static void writeByte(byte value, ByteBuffer buffer, WritableByteChannel channel) throws IOException {
+        ensureRemaining(buffer, channel, 1);
+        buffer.put(value);
+    }
+
+    public static float[] readFloats(ByteBuffer buffer, int count) {
+        float[] values = new float[count];
+        buffer.asFloatBuffer().get(values);
+        buffer.position(buffer.position() + count * 4);
+        return values;
+    }
+
+    public static int[] readInts(ByteBuffer buffer, int count) {
+        int[] values = new int[count];
+        buffer.asIntBuffer().get(values);
+        buffer.position(buffer.position() + count * 4);
+        return values;
+    }
+
+    public static byte[] readBytes(ByteBuffer buffer, int count) {
+        byte[] values = new byte[count];
+        buffer.get(values);
+        return values;
+    }
+
+    /**
+     * Writes out everything buffered so far and empties the buffer.
+     */
+    public static void flush(ByteBuffer buffer, WritableByteChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static void ensureRemaining(ByteBuffer buffer, WritableByteChannel channel, int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            flush(buffer, channel);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.leveleditor.model;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectMap;
+
+/**
+ * Container for all formation definitions.
+ * This is saved as a separate formations.json file.
+ * Lookups by ID go through a hash index, so change {@link #formations} only via
+ * the methods of this class (or call {@link #invalidateIndex()} afterwards).
+ */
+public class FormationData {
+    public Array<Formation> formations;    // All available formations
+
+    // ID index, built lazily because Json assigns formations directly
+    private transient ObjectMap<String, Formation> formationsById;
+    private transient boolean indexed;
+    // Incremented on every change so data derived from the formations can tell it is stale
+    private transient int version;
+
+    /**
+     * Default constructor for JSON deserialization.
+     */
+    public FormationData() {
+        this.formations = new Array<>();
+        this.formationsById = new ObjectMap<>();
+        this.indexed = false;
+        this.version = 0;
+    }
+
+    /**
+     * Creates a deep copy of these formations, e.g. as a snapshot for background work.
+     */
+    public FormationData copy() {
+        FormationData copy = new FormationData();
+        copy.formations.ensureCapacity(formations.size);
+        for (Formation formation : formations) {
+            copy.formations.add(formation.copy());
+        }
+        return copy;
+    }
+
+    /**
+     * Adds a formation to the collection.
+     * @param formation Formation to add
+     */
+    public void addFormation(Formation formation) {
+        formations.add(formation);
+        if (indexed && formation.id != null && !formationsById.containsKey(formation.id)) {
+            formationsById.put(formation.id, formation);
+        }
+        version++;
+    }
+
+    /**
+     * Removes a formation from the collection.
+     * @param formation Formation to remove
+     */
+    public void removeFormation(Formation formation) {
+        if (formations.removeValue(formation, true)) {
+            if (indexed && formation.id != null && formationsById.get(formation.id) == formation) {
+                // Another formation may share the ID; let the index pick it up again
+                indexed = false;
+            }
+            version++;
+        }
+    }
+
+    /**
+     * Replaces a formation in place, keeping its position in the list.
+     * @param formation Formation to replace
+     * @param replacement New formation
+     * @return true if the formation was found and replaced
+     */
+    public boolean replaceFormation(Formation formation, Formation replacement) {
+        int index = formations.indexOf(formation, true);
+        if (index < 0) {
+            return false;
+        }
+        formations.set(index, replacement);
+        indexed = false;
+        version++;
+        return true;
+    }
+
+    /**
+     * Finds a formation by ID.
+     * @param id Formation ID to search for
+     * @return The formation if found, null otherwise
+     */
+    public Formation getFormationById(String id) {
+        if (id == null) {
+            return null;
+        }
+        if (!indexed) {
+            rebuildIndex();
+        }
+        return formationsById.get(id);
+    }
+
+    /**
+     * Checks if a formation ID already exists.
+     * @param id Formation ID to check
+     * @return true if the ID exists, false otherwise
+     */
+    public boolean hasFormationId(String id) {
+        return getFormationById(id) != null;
+    }
+
+    /**
+     * Marks the formations as changed after {@link #formations} or a formation's
+     * fields were modified directly.
+     */
+    public void invalidateIndex() {
+        indexed = false;
+        version++;
+    }
+
+    /**
+     * Gets a counter that changes whenever the formations change.
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    private void rebuildIndex() {
+        formationsById.clear();
+        for (Formation formation : formations) {
+            // Keep the first formation for duplicate IDs, like the original linear scan
+            if (formation.id != null && !formationsById.containsKey(formation.id)) {
+                formationsById.put(formation.id, formation);
+            }
+        }
+        indexed = true;
+    }
+}
@@ -0,0 +1,183 @@
+package com.leveleditor.model;
+
+import com.badlogic.gdx.utils.Array;
+
+import java.util.Comparator;
+
+/**
+ * Main data structure for a complete level.
+ * Contains the level length and all events that occur during the level.
+ * Events are kept sorted by time; use {@link #addEvent} and {@link #moveEvent}
+ * rather than mutating {@link #events} or event times directly.
+ */
+public class LevelData {
+    private static final Comparator<LevelEvent> TIME_ORDER = new Comparator<LevelEvent>() {
+        @Override
+        public int compare(LevelEvent a, LevelEvent b) {
+            return Float.compare(a.time, b.time);
+        }
+    };
+
+    public float levelLength;           // Total length of the level in seconds
+    public Array<LevelEvent> events;    // All events in the level
+
+    /**
+     * Default constructor for JSON deserialization.
+     */
+    public LevelData() {
+        this.levelLength = 60.0f;  // Default 60 seconds
+        this.events = new Array<>();
+    }
+
+    /**
+     * Creates a new level with specified length.
+     * @param levelLength Length in seconds
+     */
+    public LevelData(float levelLength) {
+        this.levelLength = levelLength;
+        this.events = new Array<>();
+    }
+
+    /**
+     * Creates a deep copy of this level, e.g. as a snapshot for saving in the background.
+     */
+    public LevelData copy() {
+        LevelData copy = new LevelData(levelLength);
+        copy.events.ensureCapacity(events.size);
+        for (int i = 0; i < events.size; i++) {
+            copy.events.add(events.get(i).copy());
+        }
+        return copy;
+    }
+
+    /**
+     * Adds an event to the level at its place in time order.
+     * Events with equal times keep their insertion order.
+     * @param event Event to add
+     */
+    public void addEvent(LevelEvent event) {
+        events.insert(indexAfterTime(event.time), event);
+    }
+
+    /**
+     * Adds many events at once, sorting a single time afterwards.
+     * Cheaper than repeated {@link #addEvent} calls for imports and generated levels.
+     * @param newEvents Events to add
+     */
+    public void addEvents(Array<LevelEvent> newEvents) {
+        events.addAll(newEvents);
+        sortEvents();
+    }
+
+    /**
+     * Removes an event from the level.
+     * @param event Event to remove
+     */
+    public void removeEvent(LevelEvent event) {
+        int index = indexOfEvent(event);
+        if (index >= 0) {
+            events.removeIndex(index);
+        }
+    }
+
+    /**
+     * Changes the time and position of an event, shifting only the events between
+     * its old and new place in the sorted list.
+     * @param event Event to move (must belong to this level)
+     * @param time New time in seconds
+     * @param x New horizontal position (0.0 - 1.0)
+     */
+    public void moveEvent(LevelEvent event, float time, float x) {
+        event.x = x;
+        int index = indexOfEvent(event);
+        event.time = time;
+        if (index < 0) {
+            return;
+        }
+
+        Object[] items = events.items;
+        int target = index;
+        if (index > 0 && events.get(index - 1).time > time) {
+            // Moved earlier: insert after the last event at or before the new time
+            target = upperBound(time, 0, index);
+            System.arraycopy(items, target, items, target + 1, index - target);
+        } else if (index < events.size - 1 && events.get(index + 1).time <= time) {
+            // Moved later: the slot before the first event after the new time
+            target = upperBound(time, index + 1, events.size) - 1;
+            System.arraycopy(items, index + 1, items, index, target - index);
+        }
+        items[target] = event;
+    }
+
+    /**
+     * Finds the index of an event in the sorted list.
+     * @param event Event to look for
+     * @return Index of the event, or -1 if it is not part of this level
+     */
+    public int indexOfEvent(LevelEvent event) {
+        int size = events.size;
+        for (int i = indexOfTime(event.time); i < size; i++) {
+            LevelEvent candidate = events.get(i);
+            if (candidate == event) {
+                return i;
+            }
+            if (candidate.time != event.time) {
+                break;
+            }
+        }
+        // Event time was changed without moveEvent; fall back to a scan
+        return events.indexOf(event, true);
+    }
+
+    /**
+     * Finds the index of the first event at or after the given time.
+     * Requires events to be sorted by time.
+     * @param time Time in seconds
+     * @return Index in [0, events.size]
+     */
+    public int indexOfTime(float time) {
+        int low = 0;
+        int high = events.size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (events.get(mid).time < time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Finds the index of the first event strictly after the given time.
+     * Requires events to be sorted by time.
+     * @param time Time in seconds
+     * @return Index in [0, events.size]
+     */
+    public int indexAfterTime(float time) {
+        return upperBound(time, 0, events.size);
+    }
+
+    /**
+     * Sorts events by time (ascending order).
+     */
+    public void sortEvents() {
+        events.sort(TIME_ORDER);
+    }
+
+    /**
+     * Binary search for the first index in [low, high) whose event time is after the given time.
+     */
+    private int upperBound(float time, int low, int high) {
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (events.get(mid).time <= time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
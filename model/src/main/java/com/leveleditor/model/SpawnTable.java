@@ -0,0 +1,207 @@
+package com.leveleditor.model;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxRuntimeException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * A level compiled for the game runtime: every spawn flattened into one record with
+ * absolute position, formations already expanded and everything sorted by time.
+ * Records are stored column by column in primitive arrays; enemy types are ids into
+ * a small string dictionary, so walking the table needs no lookups and no allocation.
+ * Built by {@link SpawnTableCompiler}.
+ *
+ * Binary layout (little-endian):
+ * <pre>
+ * int    magic ("SPWN")
+ * int    version
+ * float  levelLength
+ * int    spawnCount
+ * int    stringCount, then per string: int byteLength + UTF-8 bytes
+ *        padding to a multiple of 4 bytes
+ * float  time[spawnCount]        (sorted ascending)
+ * float  x[spawnCount]           (normalized, 0.0 - 1.0 across the screen)
+ * float  y[spawnCount]           (normalized offset from the spawn line)
+ * float  speed[spawnCount]
+ * int    enemyTypeId[spawnCount] (index into the strings, -1 for null)
+ * int    sourceEvent[spawnCount] (index of the level event the spawn came from)
+ * byte   type[spawnCount]        (EventType ordinal)
+ * </pre>
+ */
+public class SpawnTable {
+    public static final String EXTENSION = "spawns";
+    public static final int MAGIC = 0x4E575053; // "SPWN" read as little-endian
+    public static final int VERSION = 1;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final EventType[] TYPES = EventType.values();
+
+    private final float levelLength;
+    private final int size;
+    private final float[] times;
+    private final float[] xs;
+    private final float[] ys;
+    private final float[] speeds;
+    private final int[] enemyTypeIds;
+    private final int[] sourceEvents;
+    private final byte[] types;
+    private final String[] strings;
+
+    SpawnTable(float levelLength, int size, float[] times, float[] xs, float[] ys, float[] speeds,
+            int[] enemyTypeIds, int[] sourceEvents, byte[] types, String[] strings) {
+        this.levelLength = levelLength;
+        this.size = size;
+        this.times = times;
+        this.xs = xs;
+        this.ys = ys;
+        this.speeds = speeds;
+        this.enemyTypeIds = enemyTypeIds;
+        this.sourceEvents = sourceEvents;
+        this.types = types;
+        this.strings = strings;
+    }
+
+    /**
+     * Checks whether a file name uses the spawn table extension.
+     */
+    public static boolean isSpawnTable(String filename) {
+        return filename.toLowerCase().endsWith("." + EXTENSION);
+    }
+
+    public float getLevelLength() {
+        return levelLength;
+    }
+
+    /**
+     * Gets the number of spawn records.
+     */
+    public int size() {
+        return size;
+    }
+
+    public float getTime(int index) {
+        return times[index];
+    }
+
+    public float getX(int index) {
+        return xs[index];
+    }
+
+    public float getY(int index) {
+        return ys[index];
+    }
+
+    public float getSpeed(int index) {
+        return speeds[index];
+    }
+
+    public EventType getType(int index) {
+        return TYPES[types[index]];
+    }
+
+    /**
+     * Gets the enemy type of a record; the same String instance for every record of a type.
+     */
+    public String getEnemyType(int index) {
+        int id = enemyTypeIds[index];
+        return id == ColumnIO.NO_STRING ? null : strings[id];
+    }
+
+    /**
+     * Gets the enemy type of a record as an index into {@link #getEnemyTypes()}, or -1 for none.
+     */
+    public int getEnemyTypeId(int index) {
+        return enemyTypeIds[index];
+    }
+
+    /**
+     * Gets the enemy type dictionary, e.g. to resolve enemy definitions once at load time.
+     */
+    public String[] getEnemyTypes() {
+        return strings;
+    }
+
+    /**
+     * Gets the index of the level event (in time order) that a record was compiled from.
+     * Formation members share their event's index.
+     */
+    public int getSourceEvent(int index) {
+        return sourceEvents[index];
+    }
+
+    /**
+     * Binary search for the first record whose time is after the given time.
+     */
+    public int upperBound(float time) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (times[mid] <= time) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Writes the table in the binary format.
+     * @param channel Destination; not closed
+     */
+    public void write(WritableByteChannel channel) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putFloat(levelLength);
+        buffer.putInt(size);
+        ColumnIO.writeStrings(new Array<>(strings), 16, buffer, channel);
+        ColumnIO.writeFloats(times, size, buffer, channel);
+        ColumnIO.writeFloats(xs, size, buffer, channel);
+        ColumnIO.writeFloats(ys, size, buffer, channel);
+        ColumnIO.writeFloats(speeds, size, buffer, channel);
+        ColumnIO.writeInts(enemyTypeIds, size, buffer, channel);
+        ColumnIO.writeInts(sourceEvents, size, buffer, channel);
+        ColumnIO.writeBytes(types, size, buffer, channel);
+        ColumnIO.flush(buffer, channel);
+    }
+
+    /**
+     * Decodes a table from a buffer positioned at the start of a spawn table, e.g. a
+     * memory-mapped file. Each column is copied in bulk; nothing is allocated per record.
+     */
+    public static SpawnTable read(ByteBuffer buffer) {
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        int start = buffer.position();
+        if (buffer.getInt() != MAGIC) {
+            throw new GdxRuntimeException("Not a spawn table");
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new GdxRuntimeException("Unsupported spawn table version: " + version);
+        }
+        float levelLength = buffer.getFloat();
+        int count = buffer.getInt();
+
+        String[] strings = ColumnIO.readStrings(buffer, start);
+
+        float[] times = ColumnIO.readFloats(buffer, count);
+        float[] xs = ColumnIO.readFloats(buffer, count);
+        float[] ys = ColumnIO.readFloats(buffer, count);
+        float[] speeds = ColumnIO.readFloats(buffer, count);
+        int[] enemyTypeIds = ColumnIO.readInts(buffer, count);
+        int[] sourceEvents = ColumnIO.readInts(buffer, count);
+        byte[] types = ColumnIO.readBytes(buffer, count);
+        for (int i = 0; i < count; i++) {
+            if (types[i] < 0 || types[i] >= TYPES.length) {
+                throw new GdxRuntimeException("Invalid event type in spawn table: " + types[i]);
+            }
+        }
+        return new SpawnTable(levelLength, count, times, xs, ys, speeds, enemyTypeIds, sourceEvents, types, strings);
+    }
+}
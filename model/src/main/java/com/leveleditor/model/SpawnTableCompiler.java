@@ -0,0 +1,99 @@
+package com.leveleditor.model;
+
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.ObjectIntMap;
+import com.badlogic.gdx.utils.ObjectSet;
+
+/**
+ * Compiles a level into a {@link SpawnTable}. FORMATION events are resolved against the
+ * formation data and expanded into one record per member, placed at the event's x plus
+ * the member's relative position and moving at the formation's speed. Every other event
+ * becomes a single record on the spawn line.
+ *
+ * LevelData keeps its events sorted by time and all records of an event share its time,
+ * so records come out sorted without a separate sort pass.
+ */
+public class SpawnTableCompiler {
+    public static final float DEFAULT_SPEED = 1.0f; // Speed of spawns outside formations
+
+    private final ObjectSet<String> unresolvedFormationIds = new ObjectSet<>();
+
+    /**
+     * Compiles a level.
+     * @param levelData Level to compile; not modified
+     * @param formationData Formations referenced by the level, or null if there are none
+     * @return The compiled table
+     */
+    public SpawnTable compile(LevelData levelData, FormationData formationData) {
+        unresolvedFormationIds.clear();
+        Array<LevelEvent> events = levelData.events;
+
+        // Count first, so the columns are allocated once at their final size
+        int count = 0;
+        for (int i = 0; i < events.size; i++) {
+            Formation formation = resolve(events.get(i), formationData);
+            count += formation != null ? formation.relativePositions.size : 1;
+        }
+
+        float[] times = new float[count];
+        float[] xs = new float[count];
+        float[] ys = new float[count];
+        float[] speeds = new float[count];
+        int[] enemyTypeIds = new int[count];
+        int[] sourceEvents = new int[count];
+        byte[] types = new byte[count];
+        Array<String> strings = new Array<>();
+        ObjectIntMap<String> stringIds = new ObjectIntMap<>();
+
+        int record = 0;
+        for (int i = 0; i < events.size; i++) {
+            LevelEvent event = events.get(i);
+            int enemyTypeId = ColumnIO.intern(event.enemyType, strings, stringIds);
+            byte type = (byte) event.type.ordinal();
+            Formation formation = resolve(event, formationData);
+            if (formation == null) {
+                if (event.type == EventType.FORMATION) {
+                    unresolvedFormationIds.add(String.valueOf(event.formationId));
+                }
+                times[record] = event.time;
+                xs[record] = event.x;
+                ys[record] = 0f;
+                speeds[record] = DEFAULT_SPEED;
+                enemyTypeIds[record] = enemyTypeId;
+                sourceEvents[record] = i;
+                types[record] = type;
+                record++;
+                continue;
+            }
+            for (int member = 0; member < formation.relativePositions.size; member++) {
+                Vector2 offset = formation.relativePositions.get(member);
+                times[record] = event.time;
+                xs[record] = event.x + offset.x;
+                ys[record] = offset.y;
+                speeds[record] = formation.speed;
+                enemyTypeIds[record] = enemyTypeId;
+                sourceEvents[record] = i;
+                types[record] = type;
+                record++;
+            }
+        }
+        return new SpawnTable(levelData.levelLength, count, times, xs, ys, speeds, enemyTypeIds, sourceEvents,
+            types, strings.toArray(String.class));
+    }
+
+    /**
+     * Gets the formation IDs that FORMATION events referenced but that could not be
+     * resolved during the last compile. Such events were compiled as single spawns.
+     */
+    public ObjectSet<String> getUnresolvedFormationIds() {
+        return unresolvedFormationIds;
+    }
+
+    private static Formation resolve(LevelEvent event, FormationData formationData) {
+        if (event.type != EventType.FORMATION || formationData == null) {
+            return null;
+        }
+        return formationData.getFormationById(event.formationId);
+    }
+}
@@ -0,0 +1,284 @@
+package com.leveleditor.player;
+
+import com.leveleditor.model.EventType;
+import com.leveleditor.model.SpawnTable;
+
+/**
+ * Fixed-timestep simulation of the entities a compiled level spawns, in normalized
+ * screen coordinates: x runs from 0 to 1 across the screen, y from 0 at the bottom to 1
+ * at the spawn line at the top. Spawns appear at the spawn line plus their formation
+ * offset, move down at their speed and are removed once they leave the screen.
+ *
+ * The state only depends on the spawn table and the step count. Positions are computed
+ * from the spawn step rather than accumulated, so stepping frame by frame and seeking
+ * produce the same entities at the same positions however the frame times vary.
+ * Entities live in parallel primitive arrays and are removed by swapping in the last
+ * one, so a running simulation only allocates when it grows past its largest size yet.
+ */
+public class EnemySimulation {
+    public static final float STEP = 1f / 60f;               // Seconds per simulation step
+    public static final float SCREENS_PER_SECOND = 0.25f;    // Distance covered per second at speed 1
+    public static final float MIN_SPEED = 0.05f;             // Slower spawns would never leave the screen
+    public static final float CULL_MARGIN = 0.05f;           // How far outside the screen entities are kept
+
+    private static final EventType[] TYPES = EventType.values();
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final LevelPlayer player;
+    private int step; // Steps simulated; the state is at stepTime(step)
+    private float maxLifetime;
+
+    // Entity columns, [0, count) in use
+    private float[] xs;
+    private float[] ys;
+    private float[] startYs;
+    private float[] velocities;
+    private int[] spawnSteps;
+    private int[] sourceEvents;
+    private byte[] types;
+    private int count;
+
+    public EnemySimulation() {
+        player = new LevelPlayer(new LevelPlayer.SpawnListener() {
+            @Override
+            public void spawn(SpawnRecord spawn) {
+                addEntity(spawn);
+            }
+        });
+        xs = new float[INITIAL_CAPACITY];
+        ys = new float[INITIAL_CAPACITY];
+        startYs = new float[INITIAL_CAPACITY];
+        velocities = new float[INITIAL_CAPACITY];
+        spawnSteps = new int[INITIAL_CAPACITY];
+        sourceEvents = new int[INITIAL_CAPACITY];
+        types = new byte[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Simulates a compiled level, starting at time 0.
+     */
+    public void setSpawnTable(SpawnTable table) {
+        player.setSpawnTable(table);
+        // Longest time any spawn can stay on screen, to know how far back a seek must look
+        maxLifetime = 0f;
+        for (int i = 0; i < table.size(); i++) {
+            float distance = 1f + table.getY(i) + CULL_MARGIN;
+            maxLifetime = Math.max(maxLifetime, distance / velocityOf(table.getSpeed(i)));
+        }
+        seek(0f);
+    }
+
+    /**
+     * Removes every entity and goes back to time 0.
+     */
+    public void clear() {
+        count = 0;
+        step = 0;
+        player.rewind();
+    }
+
+    /**
+     * Runs the steps up to the given time. Jumps longer than any entity lives are done
+     * as a seek, with the same result.
+     * @param time Time in seconds
+     * @return The number of steps run
+     */
+    public int advanceTo(float time) {
+        int target = stepAt(time);
+        if (target <= step) {
+            return 0;
+        }
+        int steps = target - step;
+        if (steps * STEP > maxLifetime + STEP) {
+            seekStep(target);
+            return steps;
+        }
+        while (step < target) {
+            step++;
+            player.playTo(stepTime(step));
+            updateEntities();
+        }
+        return steps;
+    }
+
+    /**
+     * Rebuilds the state at the given time from the spawns that can still be on screen.
+     * @param time Time in seconds (clamped to 0)
+     */
+    public void seek(float time) {
+        seekStep(stepAt(Math.max(0f, time)));
+    }
+
+    private void seekStep(int target) {
+        count = 0;
+        step = target;
+        // Anything spawned a step before the longest lifetime is gone for sure
+        float oldest = stepTime(target) - maxLifetime - STEP;
+        if (oldest < 0f) {
+            player.rewind(); // Seeking to 0 would skip spawns due at time 0
+        } else {
+            player.seek(oldest);
+        }
+        player.playTo(stepTime(target));
+        updateEntities();
+    }
+
+    /**
+     * Moves every entity to its position at the current step and removes those off screen.
+     */
+    private void updateEntities() {
+        int i = 0;
+        while (i < count) {
+            float y = startYs[i] - velocities[i] * ((step - spawnSteps[i]) * STEP);
+            if (y < -CULL_MARGIN) {
+                removeEntity(i);
+            } else {
+                ys[i] = y;
+                i++;
+            }
+        }
+    }
+
+    private void addEntity(SpawnRecord spawn) {
+        if (spawn.x < -CULL_MARGIN || spawn.x > 1f + CULL_MARGIN) {
+            return; // Never on screen
+        }
+        if (count == xs.length) {
+            grow();
+        }
+        xs[count] = spawn.x;
+        startYs[count] = 1f + spawn.y;
+        ys[count] = startYs[count];
+        velocities[count] = velocityOf(spawn.speed);
+        spawnSteps[count] = stepOf(spawn.time);
+        sourceEvents[count] = spawn.sourceEvent;
+        types[count] = (byte) spawn.type.ordinal();
+        count++;
+    }
+
+    private void removeEntity(int index) {
+        int last = --count;
+        xs[index] = xs[last];
+        ys[index] = ys[last];
+        startYs[index] = startYs[last];
+        velocities[index] = velocities[last];
+        spawnSteps[index] = spawnSteps[last];
+        sourceEvents[index] = sourceEvents[last];
+        types[index] = types[last];
+    }
+
+    private void grow() {
+        int capacity = xs.length * 2;
+        xs = copyOf(xs, capacity);
+        ys = copyOf(ys, capacity);
+        startYs = copyOf(startYs, capacity);
+        velocities = copyOf(velocities, capacity);
+        int[] grownSteps = new int[capacity];
+        System.arraycopy(spawnSteps, 0, grownSteps, 0, count);
+        spawnSteps = grownSteps;
+        int[] grownSources = new int[capacity];
+        System.arraycopy(sourceEvents, 0, grownSources, 0, count);
+        sourceEvents = grownSources;
+        byte[] grownTypes = new byte[capacity];
+        System.arraycopy(types, 0, grownTypes, 0, count);
+        types = grownTypes;
+    }
+
+    private float[] copyOf(float[] values, int capacity) {
+        float[] grown = new float[capacity];
+        System.arraycopy(values, 0, grown, 0, count);
+        return grown;
+    }
+
+    private static float velocityOf(float speed) {
+        return Math.max(MIN_SPEED, speed) * SCREENS_PER_SECOND;
+    }
+
+    private static float stepTime(int step) {
+        return step * STEP;
+    }
+
+    /**
+     * Gets the last step that starts at or before a time.
+     */
+    private static int stepAt(float time) {
+        int step = Math.max(0, (int) (time / STEP));
+        while (step > 0 && stepTime(step) > time) {
+            step--;
+        }
+        while (stepTime(step + 1) <= time) {
+            step++;
+        }
+        return step;
+    }
+
+    /**
+     * Gets the step that spawns something due at a time: the first step whose time has
+     * reached it, matching the comparison the player makes when stepping.
+     */
+    private static int stepOf(float time) {
+        int step = Math.max(0, (int) Math.ceil(time / STEP));
+        while (step > 0 && time <= stepTime(step - 1)) {
+            step--;
+        }
+        while (time > stepTime(step)) {
+            step++;
+        }
+        return step;
+    }
+
+    /**
+     * Gets the number of live entities.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    public float getX(int index) {
+        return xs[index];
+    }
+
+    public float getY(int index) {
+        return ys[index];
+    }
+
+    public EventType getType(int index) {
+        return TYPES[types[index]];
+    }
+
+    /**
+     * Gets the index of the level event an entity was spawned by.
+     */
+    public int getSourceEvent(int index) {
+        return sourceEvents[index];
+    }
+
+    /**
+     * Gets the number of steps simulated since time 0.
+     */
+    public int getStep() {
+        return step;
+    }
+
+    /**
+     * Gets the simulated time in seconds.
+     */
+    public float getTime() {
+        return stepTime(step);
+    }
+
+    /**
+     * Gets a checksum of the live entities that does not depend on their order, e.g. to
+     * check that two runs of a level agree.
+     */
+    public long getChecksum() {
+        long sum = step;
+        for (int i = 0; i < count; i++) {
+            long h = Float.floatToIntBits(xs[i]) * 0x9E3779B97F4A7C15L
+                ^ Float.floatToIntBits(ys[i]) * 0xC2B2AE3D27D4EB4FL
+                ^ sourceEvents[i] * 0x165667B19E3779F9L;
+            sum += h ^ (h >>> 29);
+        }
+        return sum * 31 + count;
+    }
+}
@@ -0,0 +1,203 @@
+package com.leveleditor.player;
+
+import com.badlogic.gdx.utils.Array;
+import com.leveleditor.model.LevelData;
+import com.leveleditor.model.LevelEvent;
+import com.leveleditor.model.SpawnTable;
+import com.leveleditor.model.SpawnTableCompiler;
+
+/**
+ * Plays a level over time and dispatches its spawns to a listener as they become due.
+ * The source is either a {@link LevelData} (one spawn per event, formations not expanded,
+ * as the editor preview shows them) or a compiled {@link SpawnTable} (what the game
+ * loads). Both are sorted by time, so a cursor marks the next spawn: a frame only looks
+ * at the spawns it dispatches plus one, seeking is a binary search, and nothing is
+ * allocated while playing because every dispatch fills the same {@link SpawnRecord}.
+ *
+ * A LevelData source must not be edited while playing; call {@link #seek} afterwards
+ * to place the cursor again.
+ */
+public class LevelPlayer {
+    /**
+     * Receives the spawns of a level as they become due.
+     */
+    public interface SpawnListener {
+        /**
+         * Called once per due spawn, in time order.
+         * @param spawn Reused for the next dispatch; copy what you need to keep
+         */
+        void spawn(SpawnRecord spawn);
+    }
+
+    private final SpawnListener listener;
+    private final SpawnRecord record;
+
+    private LevelData level;
+    private SpawnTable table;
+    private float time;
+    private int cursor; // Index of the next spawn to dispatch
+    private float timeScale;
+    private boolean paused;
+
+    /**
+     * Creates a player without a source.
+     * @param listener Receives the due spawns
+     */
+    public LevelPlayer(SpawnListener listener) {
+        this.listener = listener;
+        this.record = new SpawnRecord();
+        this.timeScale = 1f;
+    }
+
+    /**
+     * Plays a level's events, starting at time 0.
+     */
+    public void setLevel(LevelData level) {
+        this.level = level;
+        this.table = null;
+        rewind();
+    }
+
+    /**
+     * Plays a compiled spawn table, starting at time 0.
+     */
+    public void setSpawnTable(SpawnTable table) {
+        this.table = table;
+        this.level = null;
+        rewind();
+    }
+
+    /**
+     * Goes back to time 0 without dispatching anything.
+     */
+    public void rewind() {
+        time = 0f;
+        cursor = 0;
+    }
+
+    /**
+     * Advances the playback time and dispatches every spawn due by then.
+     * Nothing advances while paused, but spawns due at the current time are still dispatched.
+     * @param delta Frame time in seconds, before the time scale is applied
+     * @return The number of spawns dispatched
+     */
+    public int update(float delta) {
+        return playTo(paused ? time : time + delta * timeScale);
+    }
+
+    /**
+     * Sets the playback time and dispatches every spawn due by then, ignoring pause and
+     * time scale. Lets fixed-timestep callers play to exact step times.
+     * @param time Time in seconds; spawns already dispatched are not repeated when going back
+     * @return The number of spawns dispatched
+     */
+    public int playTo(float time) {
+        this.time = time;
+        int from = cursor;
+        if (table != null) {
+            while (cursor < table.size() && table.getTime(cursor) <= time) {
+                dispatchTableSpawn(cursor++);
+            }
+        } else if (level != null) {
+            Array<LevelEvent> events = level.events;
+            while (cursor < events.size && events.get(cursor).time <= time) {
+                dispatchLevelEvent(events.get(cursor), cursor++);
+            }
+        }
+        return cursor - from;
+    }
+
+    /**
+     * Jumps to a time without dispatching the spawns in between. Spawns due at or before
+     * the new time count as dispatched; see {@link #getCursor()} to tell which changed.
+     * @param time Time in seconds (clamped to 0)
+     */
+    public void seek(float time) {
+        this.time = Math.max(0f, time);
+        if (table != null) {
+            cursor = table.upperBound(this.time);
+        } else if (level != null) {
+            cursor = level.indexAfterTime(this.time);
+        } else {
+            cursor = 0;
+        }
+    }
+
+    /**
+     * Gets the current playback time in seconds.
+     */
+    public float getTime() {
+        return time;
+    }
+
+    /**
+     * Gets the index of the next spawn to dispatch; every spawn before it is done.
+     * For a LevelData source this is an index into its time-sorted events.
+     */
+    public int getCursor() {
+        return cursor;
+    }
+
+    /**
+     * Gets the number of spawns in the source.
+     */
+    public int size() {
+        if (table != null) {
+            return table.size();
+        }
+        return level != null ? level.events.size : 0;
+    }
+
+    /**
+     * Checks whether every spawn has been dispatched.
+     */
+    public boolean isFinished() {
+        return cursor >= size();
+    }
+
+    /**
+     * Sets the playback speed multiplier, e.g. 2 for double speed.
+     * @param timeScale Multiplier (clamped to 0)
+     */
+    public void setTimeScale(float timeScale) {
+        this.timeScale = Math.max(0f, timeScale);
+    }
+
+    public float getTimeScale() {
+        return timeScale;
+    }
+
+    public void setPaused(boolean paused) {
+        this.paused = paused;
+    }
+
+    public boolean isPaused() {
+        return paused;
+    }
+
+    private void dispatchTableSpawn(int index) {
+        record.time = table.getTime(index);
+        record.type = table.getType(index);
+        record.x = table.getX(index);
+        record.y = table.getY(index);
+        record.speed = table.getSpeed(index);
+        record.enemyType = table.getEnemyType(index);
+        record.formationId = null;
+        record.sourceEvent = table.getSourceEvent(index);
+        record.index = index;
+        listener.spawn(record);
+    }
+
+    private void dispatchLevelEvent(LevelEvent event, int index) {
+        record.time = event.time;
+        record.type = event.type;
+        record.x = event.x;
+        record.y = 0f;
+        record.speed = SpawnTableCompiler.DEFAULT_SPEED;
+        record.enemyType = event.enemyType;
+        record.formationId = event.formationId;
+        record.sourceEvent = index;
+        record.index = index;
+        listener.spawn(record);
+    }
+}
@@ -0,0 +1,22 @@
+package com.leveleditor.player;
+
+import com.leveleditor.model.EventType;
+
+/**
+ * A spawn dispatched by a {@link LevelPlayer}. The player reuses one record for every
+ * dispatch, so listeners must copy the fields they want to keep.
+ */
+public class SpawnRecord {
+    public float time;           // Time in seconds the spawn was due
+    public EventType type;       // Type of the source event
+    public float x;              // Horizontal position (0.0 - 1.0 normalized)
+    public float y;              // Normalized offset from the spawn line; 0 unless compiled from a formation
+    public float speed;          // Movement speed
+    public String enemyType;     // Type of enemy (e.g., "basic", "fast", "tank")
+    public String formationId;   // Formation of the source event; null for compiled spawn tables
+    public int sourceEvent;      // Index of the source event in the level's time-sorted events
+    public int index;            // Index of the spawn in the player's source
+
+    SpawnRecord() {
+    }
+}